@@ -1,6 +1,7 @@
 package com.japanesestudy.app.config;
 
 import java.time.Duration;
+import java.util.List;
 
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -8,21 +9,91 @@ import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.japanesestudy.app.service.CatalogCacheLoader;
+import com.japanesestudy.app.service.CourseTreeService.SerializedTree;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Catalog caches refresh ahead: once an entry is older than
+ * {@link #REFRESH_AFTER_WRITE}, the next read still gets the cached value
+ * while Caffeine reloads it in the background, one reload per key at a time.
+ * Entries nobody reads for {@link #EXPIRE_AFTER_WRITE} are dropped.
+ *
+ * <p>Hit, miss and load statistics are bound to Micrometer by Spring Boot's
+ * cache metrics; background reloads are also timed as {@code cache.refresh}.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final List<String> CATALOG_CACHES = List.of(
+            "courses",
+            "courseById",
+            "topicsByCourse",
+            "itemsByTopic");
+    private static final long MAXIMUM_SIZE = 10_000;
+    private static final Duration REFRESH_AFTER_WRITE = Duration.ofMinutes(5);
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofHours(1);
+    /**
+     * Byte budget for serialized course trees; they are rebuilt on demand
+     * rather than refreshed.
+     */
+    private static final long COURSE_TREE_MAX_BYTES = 64L * 1024 * 1024;
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "courses",
-                "courseById",
-                "topicsByCourse",
-                "itemsByTopic");
+    public CacheManager cacheManager(CatalogCacheLoader catalogCacheLoader, MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        for (String name : CATALOG_CACHES) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .refreshAfterWrite(REFRESH_AFTER_WRITE)
+                    .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                    .recordStats()
+                    .build(refreshingLoader(name, catalogCacheLoader, meterRegistry)));
+        }
+        cacheManager.registerCustomCache("courseTree", Caffeine.newBuilder()
+                .maximumWeight(COURSE_TREE_MAX_BYTES)
+                .weigher((Object key, Object value) -> value instanceof SerializedTree tree ? tree.weight() : 1)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
 
-        cacheManager.setCacheSpecification(
-                "maximumSize=10000,expireAfterWrite=" + Duration.ofHours(1).toSeconds() + "s,recordStats");
+    private static CacheLoader<Object, Object> refreshingLoader(String name, CatalogCacheLoader loader,
+            MeterRegistry meterRegistry) {
+        Timer refreshed = refreshTimer(meterRegistry, name, "success");
+        Timer failed = refreshTimer(meterRegistry, name, "failure");
+        return new CacheLoader<>() {
+            @Override
+            public Object load(Object key) {
+                return loader.load(name, key);
+            }
 
-        return cacheManager;
+            @Override
+            public Object reload(Object key, Object oldValue) {
+                long started = System.nanoTime();
+                try {
+                    Object value = load(key);
+                    refreshed.record(Duration.ofNanos(System.nanoTime() - started));
+                    return value;
+                } catch (RuntimeException e) {
+                    failed.record(Duration.ofNanos(System.nanoTime() - started));
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private static Timer refreshTimer(MeterRegistry meterRegistry, String name, String result) {
+        return Timer.builder("cache.refresh")
+                .description("Background refreshes of catalog cache entries")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
     }
 }
@@ -1,16 +1,36 @@
 package com.japanesestudy.app.config;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.japanesestudy.app.util.NaturalOrder;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
 @Slf4j
 public class DatabaseInitializer {
 
+    /**
+     * Must match the allocationSize of the entities' @SequenceGenerator.
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> ID_SEQUENCES = Map.of(
+            "courses", "courses_seq",
+            "topics", "topics_seq",
+            "study_items", "study_items_seq",
+            "user_progress", "user_progress_seq",
+            "audit_log", "audit_log_seq");
+
     @Bean
     public CommandLineRunner ensureSchema(JdbcTemplate jdbcTemplate) {
         return args -> {
@@ -36,4 +56,100 @@ public class DatabaseInitializer {
             }
         };
     }
+
+    /**
+     * Topics saved before sort keys existed have a NULL sort_key; derive it
+     * from the title once at startup.
+     */
+    @Bean
+    public CommandLineRunner backfillTopicSortKeys(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                List<Object[]> updates = new ArrayList<>();
+                jdbcTemplate.query("SELECT id, title FROM topics WHERE sort_key IS NULL", rs -> {
+                    updates.add(new Object[]{NaturalOrder.sortKey(rs.getString("title")), rs.getLong("id")});
+                });
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE topics SET sort_key = ? WHERE id = ?", updates);
+                    log.info("Backfilled sort keys for {} topics", updates.size());
+                }
+            } catch (org.springframework.dao.DataAccessException ex) {
+                log.error("Failed to backfill topic sort keys: {}", ex.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Topics used to be saved without an order index. Keyset scrolling seeks
+     * on {@code (course_id, order_index)} and would skip them, so give each
+     * the next free index in its course (in id order) and then forbid NULLs.
+     */
+    @Bean
+    public CommandLineRunner backfillTopicOrder(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                int updated = assignMissingOrderIndexes(jdbcTemplate);
+                if (updated > 0) {
+                    log.info("Assigned order indexes to {} topics", updated);
+                }
+                jdbcTemplate.execute("ALTER TABLE topics ALTER COLUMN order_index SET NOT NULL");
+            } catch (org.springframework.dao.DataAccessException ex) {
+                log.error("Failed to backfill topic order indexes: {}", ex.getMessage());
+            }
+        };
+    }
+
+    static int assignMissingOrderIndexes(JdbcTemplate jdbcTemplate) {
+        Map<Long, Integer> nextIndex = new HashMap<>();
+        jdbcTemplate.query("SELECT course_id, MAX(order_index) AS max_index FROM topics GROUP BY course_id", rs -> {
+            int max = rs.getInt("max_index");
+            nextIndex.put(rs.getObject("course_id", Long.class), rs.wasNull() ? 0 : max + 1);
+        });
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, course_id FROM topics WHERE order_index IS NULL ORDER BY course_id, id", rs -> {
+            Long courseId = rs.getObject("course_id", Long.class);
+            int index = nextIndex.merge(courseId, 1, Integer::sum) - 1;
+            updates.add(new Object[]{index, rs.getLong("id")});
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE topics SET order_index = ? WHERE id = ?", updates);
+        }
+        return updates.size();
+    }
+
+    /**
+     * Existing databases were populated through IDENTITY columns, so a freshly
+     * created id sequence starts below the ids already in use. Move each
+     * sequence past MAX(id) so the pooled optimizer hands out free blocks.
+     */
+    @Bean
+    public CommandLineRunner alignIdSequences(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            boolean postgres = product != null && product.toLowerCase().contains("postgres");
+            ID_SEQUENCES.forEach((table, sequence) -> {
+                try {
+                    alignSequence(jdbcTemplate, table, sequence, postgres);
+                } catch (org.springframework.dao.DataAccessException ex) {
+                    log.error("Failed to align sequence {}: {}", sequence, ex.getMessage());
+                }
+            });
+        };
+    }
+
+    private void alignSequence(JdbcTemplate jdbcTemplate, String table, String sequence, boolean postgres) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence
+                + " START WITH 1 INCREMENT BY " + ID_ALLOCATION_SIZE);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long next = jdbcTemplate.queryForObject(postgres
+                ? "SELECT nextval('" + sequence + "')"
+                : "SELECT NEXT VALUE FOR " + sequence, Long.class);
+        // The pooled optimizer treats each sequence value as the top of a block.
+        if (maxId != null && next != null && next - ID_ALLOCATION_SIZE + 1 <= maxId) {
+            long restart = maxId + ID_ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+            log.info("Moved sequence {} to {} (max {}.id = {})", sequence, restart, table, maxId);
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package com.japanesestudy.app.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.import")
+@Validated
+@Data
+public class ImportProperties {
+
+    /**
+     * Number of import jobs that run at the same time.
+     */
+    @Min(value = 1, message = "app.import.max-concurrent-jobs must be >= 1")
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Number of submitted jobs that may wait for a free worker.
+     */
+    @Min(value = 0, message = "app.import.queue-capacity must be >= 0")
+    private int queueCapacity = 8;
+
+    /**
+     * Threads per import that sanitize notes and map fields while the reader
+     * and writer run.
+     */
+    @Min(value = 1, message = "app.import.transform-threads must be >= 1")
+    private int transformThreads = 2;
+
+    /**
+     * Note batches that may sit between the reader and the writer of one
+     * import. Bounds the memory of the pipeline.
+     */
+    @Min(value = 1, message = "app.import.pipeline-batches-in-flight must be >= 1")
+    private int pipelineBatchesInFlight = 8;
+
+    /**
+     * Insert new study items through JDBC (COPY on PostgreSQL, batched
+     * INSERT elsewhere) instead of JPA.
+     */
+    private boolean bulkLoad = true;
+
+    /**
+     * Total size of uploads that may be queued or importing at once. Further
+     * uploads are rejected with 429 until earlier ones finish.
+     */
+    @NotNull
+    private DataSize maxInFlightUploadSize = DataSize.ofMegabytes(256);
+
+    /**
+     * Retry-After sent with 429 responses when the import capacity is spent.
+     */
+    @NotNull
+    private Duration retryAfter = Duration.ofSeconds(30);
+
+    /**
+     * How long finished jobs stay queryable.
+     */
+    @NotNull
+    private Duration jobRetention = Duration.ofHours(1);
+}
@@ -0,0 +1,27 @@
+package com.japanesestudy.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.search")
+@Validated
+@Data
+public class SearchProperties {
+
+    /**
+     * Node budget of the typeahead trie. Items whose readings would need
+     * more nodes are left out of typeahead (they stay searchable).
+     */
+    @Min(value = 1, message = "app.search.typeahead-max-nodes must be >= 1")
+    private int typeaheadMaxNodes = 1_000_000;
+
+    /**
+     * Most suggestions one typeahead request returns; also the length of the
+     * ranked lists the trie caches per node.
+     */
+    @Min(value = 1, message = "app.search.typeahead-max-results must be >= 1")
+    private int typeaheadMaxResults = 10;
+}
@@ -1,8 +1,11 @@
 package com.japanesestudy.app.controller;
 
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,23 +15,36 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.japanesestudy.app.dto.catalog.CatalogDtos.CursorPage;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicView;
 import com.japanesestudy.app.entity.Course;
 import com.japanesestudy.app.entity.CourseAccess;
 import com.japanesestudy.app.entity.Topic;
 import com.japanesestudy.app.entity.User;
 import com.japanesestudy.app.entity.AccessLevel;
 import com.japanesestudy.app.security.service.UserDetailsImpl;
+import com.japanesestudy.app.service.CatalogEtags;
 import com.japanesestudy.app.service.CatalogService;
 import com.japanesestudy.app.service.CatalogService.CourseSummary;
 import com.japanesestudy.app.service.CatalogService.BulkResult;
 import com.japanesestudy.app.service.CatalogService.TopicUpsert;
+import com.japanesestudy.app.service.CourseExportService;
+import com.japanesestudy.app.service.CourseTreeService;
+import com.japanesestudy.app.service.CsvBulkImporter;
+import com.japanesestudy.app.service.CsvBulkImporter.ImportResult;
+import com.japanesestudy.app.service.ResponseBodyCache;
+import static com.japanesestudy.app.util.Utils.acceptsEncoding;
 import static com.japanesestudy.app.util.Utils.created;
 import static com.japanesestudy.app.util.Utils.getOrThrow;
 import static com.japanesestudy.app.util.Utils.noContent;
 import static com.japanesestudy.app.util.Utils.ok;
+import static com.japanesestudy.app.util.Utils.serialized;
 
 import lombok.RequiredArgsConstructor;
 
@@ -38,10 +54,20 @@ import lombok.RequiredArgsConstructor;
 public class CourseController {
 
     private final CatalogService catalogService;
+    private final CourseExportService courseExportService;
+    private final CourseTreeService courseTreeService;
+    private final ResponseBodyCache responseBodyCache;
+    private final CatalogEtags catalogEtags;
+    private final CsvBulkImporter csvBulkImporter;
 
     @GetMapping("/{courseId}/topics")
-    public ResponseEntity<List<Topic>> getTopicsForCourse(@PathVariable Long courseId) {
-        return ok(catalogService.getTopicsByCourse(courseId));
+    public ResponseEntity<byte[]> getTopicsForCourse(
+            @PathVariable Long courseId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        List<TopicView> topics = catalogService.getTopicsByCourse(courseId);
+        String etag = catalogEtags.forTopics(topics);
+        return serialized(request, etag, () -> responseBodyCache.serialize(topics, etag), acceptEncoding);
     }
 
     @GetMapping("/{courseId}/topics/page")
@@ -52,6 +78,46 @@ public class CourseController {
         return ok(catalogService.getTopicsByCourse(courseId, page, size));
     }
 
+    @GetMapping("/{courseId}/topics/scroll")
+    public ResponseEntity<CursorPage<TopicView>> scrollTopicsForCourse(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean count) {
+        return ok(catalogService.scrollTopicsByCourse(courseId, cursor, size, count));
+    }
+
+    /**
+     * The course with its ordered topics and their items in one response,
+     * served from pre-serialized bytes.
+     */
+    @GetMapping("/{courseId}/tree")
+    public ResponseEntity<byte[]> getCourseTree(
+            @PathVariable Long courseId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Course course = getOrThrow(() -> catalogService.getCourseById(courseId), "Course not found");
+        return serialized(courseTreeService.getTree(course).body(), acceptEncoding);
+    }
+
+    /**
+     * The whole course as NDJSON, streamed straight from the database.
+     * Compressed with zstd when the client accepts it.
+     */
+    @GetMapping(value = "/{courseId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCourse(
+            @PathVariable Long courseId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Course course = getOrThrow(() -> catalogService.getCourseById(courseId), "Course not found");
+        boolean zstd = acceptsEncoding(acceptEncoding, "zstd");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (zstd) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "zstd");
+        }
+        return response.body(out -> courseExportService.export(course, out, zstd));
+    }
+
     @PostMapping("/{courseId}/topics")
     public ResponseEntity<Topic> createTopicForCourse(
             @PathVariable Long courseId,
@@ -115,15 +181,26 @@ public class CourseController {
         return ok(result);
     }
 
+    @PostMapping(value = "/{courseId}/topics/import/csv", consumes = "text/csv")
+    public ResponseEntity<ImportResult> importTopicsCsv(
+            @PathVariable Long courseId,
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        requireEditAccess(courseId, userDetails);
+        return ok(csvBulkImporter.importTopics(courseId, body, dryRun, userDetails != null ? userDetails.getId() : null));
+    }
+
     @GetMapping
-    public ResponseEntity<List<Course>> getAllCourses() {
-        return ok(catalogService.getAllCourses());
+    public ResponseEntity<byte[]> getAllCourses(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serialized(responseBodyCache.serialize(catalogService.getAllCourses()), acceptEncoding);
     }
 
     @GetMapping("/{courseId}")
     public ResponseEntity<Course> getCourseById(@PathVariable Long courseId) {
         return catalogService.getCourseById(courseId)
-                .map(ResponseEntity::ok)
+                .map(course -> ResponseEntity.ok().eTag(catalogEtags.forCourse(course)).body(course))
                 .orElse(ResponseEntity.notFound().build());
     }
 
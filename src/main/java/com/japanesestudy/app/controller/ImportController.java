@@ -1,11 +1,16 @@
 package com.japanesestudy.app.controller;
 
 import com.japanesestudy.app.dto.common.ErrorResponse;
+import com.japanesestudy.app.dto.importing.ImportJobStatus;
+import com.japanesestudy.app.exception.ImportCapacityException;
 import com.japanesestudy.app.repository.UserRepository;
 import com.japanesestudy.app.security.service.UserDetailsImpl;
-import com.japanesestudy.app.service.AnkiService;
+import com.japanesestudy.app.service.ImportJob;
+import com.japanesestudy.app.service.ImportJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -21,7 +26,7 @@ import static com.japanesestudy.app.util.Utils.*;
 @RequiredArgsConstructor
 public class ImportController {
 
-    private final AnkiService ankiService;
+    private final ImportJobService importJobService;
     private final UserRepository userRepository;
 
     @PostMapping("/anki")
@@ -40,20 +45,50 @@ public class ImportController {
             var owner = userRepository.findById(userDetails.getId())
                     .orElseThrow(() -> new IllegalArgumentException("User not found"));
             String deckName = filename != null ? filename : originalFilename;
-            Map<String, Object> result = ankiService.importAnkiFile(file, deckName, owner);
-            return ResponseEntity.ok(result);
+            ImportJob job = importJobService.submit(file, deckName, owner);
+            return ResponseEntity.accepted().body(job.toStatus());
         } catch (IllegalArgumentException e) {
             log.error("Validation error during import", e);
             return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
+        } catch (ImportCapacityException e) {
+            log.warn("Import capacity spent, rejecting {}: {}", originalFilename, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(new ErrorResponse(429, e.getMessage()));
         } catch (Exception e) {
-            log.error("Failed to import Anki deck", e);
+            log.error("Failed to queue Anki import", e);
             return ResponseEntity.internalServerError()
                     .body(new ErrorResponse(500, "Import failed: " + e.getMessage(), e.toString()));
         }
     }
 
     @GetMapping("/status")
-    public ResponseEntity<Map<String, String>> getImportStatus() {
-        return ok(Map.of("status", "ready", "supportedFormats", ".apkg"));
+    public ResponseEntity<Map<String, Object>> getImportStatus() {
+        return ok(Map.of("status", "ready", "supportedFormats", ".apkg",
+                "activeJobs", importJobService.getActiveJobCount(),
+                "queuedJobs", importJobService.getQueuedJobCount(),
+                "inFlightUploadBytes", importJobService.getInFlightUploadBytes(),
+                "uploadBudgetBytes", importJobService.getUploadBudgetBytes()));
+    }
+
+    @GetMapping("/status/{jobId}")
+    public ResponseEntity<ImportJobStatus> getJobStatus(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return importJobService.findJob(jobId, userDetails.getId())
+                .map(job -> ResponseEntity.ok(job.toStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/status/{jobId}")
+    public ResponseEntity<ImportJobStatus> cancelJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return importJobService.findJob(jobId, userDetails.getId())
+                .map(job -> {
+                    job.cancel();
+                    return ResponseEntity.ok(job.toStatus());
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -1,11 +1,16 @@
 package com.japanesestudy.app.controller;
 
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TypeaheadSuggestion;
 import com.japanesestudy.app.entity.StudyItem;
 import com.japanesestudy.app.service.CatalogService;
+import com.japanesestudy.app.service.StudyItemSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 import static com.japanesestudy.app.util.Utils.*;
 
 @RestController
@@ -14,6 +19,21 @@ import static com.japanesestudy.app.util.Utils.*;
 public class StudyItemController {
 
     private final CatalogService catalogService;
+    private final StudyItemSearchService searchService;
+
+    @GetMapping("/search")
+    public ResponseEntity<List<StudyItemView>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ok(searchService.search(q, limit));
+    }
+
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<TypeaheadSuggestion>> typeahead(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ok(searchService.typeahead(q, limit));
+    }
 
     @GetMapping("/{itemId}")
     public ResponseEntity<StudyItem> getItemById(@PathVariable Long itemId) {
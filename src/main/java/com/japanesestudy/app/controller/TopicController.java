@@ -1,8 +1,11 @@
 package com.japanesestudy.app.controller;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,14 +14,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.japanesestudy.app.dto.catalog.CatalogDtos.CursorPage;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicView;
 import com.japanesestudy.app.entity.StudyItem;
 import com.japanesestudy.app.entity.Topic;
 import com.japanesestudy.app.security.service.UserDetailsImpl;
+import com.japanesestudy.app.service.CatalogEtags;
 import com.japanesestudy.app.service.CatalogService;
+import com.japanesestudy.app.service.CsvBulkImporter;
+import com.japanesestudy.app.service.CsvBulkImporter.ImportResult;
+import com.japanesestudy.app.service.ResponseBodyCache;
 import com.japanesestudy.app.service.CatalogService.BulkResult;
 import com.japanesestudy.app.service.CatalogService.StudyItemUpsert;
 import com.japanesestudy.app.service.CatalogService.TopicSummary;
@@ -26,6 +38,7 @@ import static com.japanesestudy.app.util.Utils.created;
 import static com.japanesestudy.app.util.Utils.getOrThrow;
 import static com.japanesestudy.app.util.Utils.noContent;
 import static com.japanesestudy.app.util.Utils.ok;
+import static com.japanesestudy.app.util.Utils.serialized;
 
 import lombok.RequiredArgsConstructor;
 
@@ -35,15 +48,33 @@ import lombok.RequiredArgsConstructor;
 public class TopicController {
 
     private final CatalogService catalogService;
+    private final CatalogEtags catalogEtags;
+    private final ResponseBodyCache responseBodyCache;
+    private final CsvBulkImporter csvBulkImporter;
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<Topic>> getTopicsByCourse(@PathVariable Long courseId) {
-        return ok(catalogService.getTopicsByCourse(courseId));
+    public ResponseEntity<byte[]> getTopicsByCourse(
+            @PathVariable Long courseId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        List<TopicView> topics = catalogService.getTopicsByCourse(courseId);
+        String etag = catalogEtags.forTopics(topics);
+        return serialized(request, etag, () -> responseBodyCache.serialize(topics, etag), acceptEncoding);
     }
 
     @GetMapping("/{topicId}/items")
-    public ResponseEntity<List<StudyItem>> getItemsByTopic(@PathVariable Long topicId) {
-        return ok(catalogService.getItemsByTopic(topicId));
+    public ResponseEntity<byte[]> getItemsByTopic(
+            @PathVariable Long topicId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        List<StudyItemView> items = catalogService.getItemsByTopic(topicId);
+        String etag = catalogEtags.forItems(items);
+        return serialized(request, etag, () -> responseBodyCache.serialize(items, etag), acceptEncoding);
+    }
+
+    @GetMapping("/items")
+    public ResponseEntity<Map<Long, List<StudyItemView>>> getItemsByTopics(@RequestParam List<Long> ids) {
+        return ok(catalogService.getItemsByTopics(ids));
     }
 
     @GetMapping("/{topicId}/items/page")
@@ -54,6 +85,15 @@ public class TopicController {
         return ok(catalogService.getItemsByTopic(topicId, page, size));
     }
 
+    @GetMapping("/{topicId}/items/scroll")
+    public ResponseEntity<CursorPage<StudyItemView>> scrollItemsByTopic(
+            @PathVariable Long topicId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean count) {
+        return ok(catalogService.scrollItemsByTopic(topicId, cursor, size, count));
+    }
+
     @PostMapping
     public ResponseEntity<Topic> createTopic(@RequestBody Topic topic) {
         return created(catalogService.createTopic(topic));
@@ -103,6 +143,17 @@ public class TopicController {
         return ok(result);
     }
 
+    @PostMapping(value = "/{topicId}/items/import/csv", consumes = "text/csv")
+    public ResponseEntity<ImportResult> importItemsCsv(
+            @PathVariable Long topicId,
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Topic topic = getOrThrow(() -> catalogService.getTopicById(topicId), "Topic not found");
+        requireEditAccess(topic, userDetails);
+        return ok(csvBulkImporter.importStudyItems(topicId, body, dryRun, userDetails != null ? userDetails.getId() : null));
+    }
+
     @PutMapping("/{topicId}")
     public ResponseEntity<Topic> updateTopic(
             @PathVariable Long topicId,
@@ -0,0 +1,120 @@
+package com.japanesestudy.app.dto.catalog;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.japanesestudy.app.entity.StudyItem;
+import com.japanesestudy.app.entity.Topic;
+
+/**
+ * Immutable read models for the catalog caches. They serialize to the same
+ * JSON as the entities they are copied from, but hold no Hibernate state and
+ * cannot be changed by whoever reads them from the cache.
+ */
+public class CatalogDtos {
+
+    public record TopicView(
+            Long id,
+            String title,
+            String description,
+            Integer orderIndex,
+            boolean deleted,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            Long version) {
+
+        public static TopicView from(Topic topic) {
+            return new TopicView(topic.getId(), topic.getTitle(), topic.getDescription(), topic.getOrderIndex(),
+                    topic.isDeleted(), topic.getCreatedAt(), topic.getUpdatedAt(), topic.getVersion());
+        }
+
+        public static List<TopicView> listOf(List<Topic> topics) {
+            return topics.stream().map(TopicView::from).toList();
+        }
+    }
+
+    public record StudyItemView(
+            Long id,
+            String primaryText,
+            String secondaryText,
+            String meaning,
+            Map<String, String> additionalData,
+            boolean deleted,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            Long version,
+            Integer userSrsInterval) {
+
+        public static StudyItemView from(StudyItem item) {
+            return new StudyItemView(item.getId(), item.getPrimaryText(), item.getSecondaryText(), item.getMeaning(),
+                    compact(item.getAdditionalData()), item.isDeleted(), item.getCreatedAt(), item.getUpdatedAt(),
+                    item.getVersion(), item.getUserSrsInterval());
+        }
+
+        public static List<StudyItemView> listOf(List<StudyItem> items) {
+            return items.stream().map(StudyItemView::from).toList();
+        }
+
+        /**
+         * Copies {@code additionalData} into an unmodifiable map. Keys are the
+         * same few field names on every item ("reading", "audio", ...), so
+         * they are interned rather than kept once per row.
+         */
+        private static Map<String, String> compact(Map<String, String> data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.isEmpty()) {
+                return Map.of();
+            }
+            Map<String, String> interned = new HashMap<>(data.size() * 2);
+            boolean nullValues = false;
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                String key = entry.getKey() != null ? entry.getKey().intern() : null;
+                interned.put(key, entry.getValue());
+                nullValues |= key == null || entry.getValue() == null;
+            }
+            return nullValues ? Collections.unmodifiableMap(interned) : Map.copyOf(interned);
+        }
+    }
+
+    /**
+     * A course with its ordered topics and their items, as served by
+     * {@code GET /api/courses/{id}/tree}.
+     */
+    public record CourseTree(
+            Long id,
+            String title,
+            String description,
+            String level,
+            Long version,
+            List<TopicNode> topics) {
+
+    }
+
+    public record TopicNode(
+            Long id,
+            String title,
+            String description,
+            Integer orderIndex,
+            Long version,
+            int itemCount,
+            List<StudyItemView> items) {
+
+    }
+
+    /**
+     * One page of a keyset scroll. {@code nextCursor} is null on the last
+     * page; {@code total} is only filled in when the client asks for it.
+     */
+    public record CursorPage<T>(List<T> items, String nextCursor, Long total) {
+
+    }
+
+    public record TypeaheadSuggestion(Long id, Long topicId, String primaryText, String secondaryText) {
+
+    }
+}
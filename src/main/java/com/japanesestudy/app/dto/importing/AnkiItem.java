@@ -7,6 +7,7 @@ import java.util.Map;
 @Getter
 @Setter
 public class AnkiItem {
+    private String guid;
     private String front;
     private String back;
     private String deck;
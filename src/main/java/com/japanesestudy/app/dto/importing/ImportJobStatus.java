@@ -0,0 +1,22 @@
+package com.japanesestudy.app.dto.importing;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.japanesestudy.app.model.ImportStage;
+import com.japanesestudy.app.service.ImportJob;
+
+public record ImportJobStatus(
+        String jobId,
+        ImportJob.Status status,
+        ImportStage stage,
+        int percent,
+        long itemsWritten,
+        long itemsTotal,
+        double itemsPerSecond,
+        Instant createdAt,
+        Instant finishedAt,
+        Map<String, Object> result,
+        String error) {
+
+}
@@ -0,0 +1,63 @@
+package com.japanesestudy.app.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * SHA-256 of the last .apkg file imported into a course, per owner. Lets an
+ * identical re-upload return the existing course without parsing the deck.
+ */
+@Entity
+@Table(name = "import_fingerprints", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_import_fingerprints_owner_sha256", columnNames = {"owner_id", "sha256"})
+}, indexes = {
+    @Index(name = "idx_import_fingerprints_course", columnList = "course_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class ImportFingerprint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_fingerprints_seq")
+    @SequenceGenerator(name = "import_fingerprints_seq", sequenceName = "import_fingerprints_seq", allocationSize = 50)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @UpdateTimestamp
+    @Column(name = "imported_at")
+    private LocalDateTime importedAt;
+
+    public ImportFingerprint(Long ownerId, String sha256, Long courseId) {
+        this.ownerId = ownerId;
+        this.sha256 = sha256;
+        this.courseId = courseId;
+    }
+}
@@ -25,6 +25,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import jakarta.persistence.Version;
@@ -37,7 +38,9 @@ import lombok.ToString;
 
 @Entity
 @Table(name = "study_items", indexes = {
-    @Index(name = "idx_study_items_topic_id", columnList = "topic_id")
+    @Index(name = "idx_study_items_topic_id", columnList = "topic_id"),
+    @Index(name = "idx_study_items_topic_id_id", columnList = "topic_id, id"),
+    @Index(name = "idx_study_items_anki_guid", columnList = "anki_guid")
 })
 @SQLDelete(sql = "UPDATE study_items SET deleted = true, version = version + 1 WHERE id = ? AND version = ?")
 @Where(clause = "deleted = false")
@@ -49,7 +52,8 @@ import lombok.ToString;
 public class StudyItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "study_items_seq")
+    @SequenceGenerator(name = "study_items_seq", sequenceName = "study_items_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -77,6 +81,20 @@ public class StudyItem {
     @JsonIgnore
     private List<UserProgress> progressRecords = new ArrayList<>();
 
+    /**
+     * Anki note guid for imported items; re-imports match on it.
+     */
+    @Column(name = "anki_guid", length = 64)
+    @JsonIgnore
+    private String ankiGuid;
+
+    /**
+     * SHA-256 of the imported text, so unchanged notes are skipped on re-import.
+     */
+    @Column(name = "content_hash", length = 64)
+    @JsonIgnore
+    private String contentHash;
+
     @Column(nullable = false)
     private boolean deleted = false;
 
@@ -3,6 +3,7 @@ package com.japanesestudy.app.entity;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLDelete;
@@ -10,6 +11,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.Where;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.japanesestudy.app.util.NaturalOrder;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -22,9 +24,18 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -46,7 +57,8 @@ import lombok.ToString;
 public class Topic {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "topics_seq")
+    @SequenceGenerator(name = "topics_seq", sequenceName = "topics_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -57,8 +69,29 @@ public class Topic {
     @Column(length = 1000)
     private String description;
 
+    /**
+     * Never NULL: keyset scrolling seeks on {@code (course_id, order_index)}.
+     * Services assign the next free index when none is given.
+     */
+    @Column(name = "order_index", nullable = false)
+    @NotNull
     private Integer orderIndex;
 
+    /**
+     * {@code orderIndex} as last loaded from or written to the database.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Integer storedOrderIndex;
+
+    /**
+     * {@link NaturalOrder#sortKey(String)} of the title, kept in sync on save.
+     */
+    @Column(name = "sort_key", length = NaturalOrder.MAX_KEY_LENGTH)
+    @JsonIgnore
+    private String sortKey;
+
     @Column(nullable = false)
     private boolean deleted = false;
 
@@ -88,4 +121,26 @@ public class Topic {
         this.description = description;
         this.orderIndex = orderIndex;
     }
+
+    @PrePersist
+    @PreUpdate
+    public void refreshSortKey() {
+        sortKey = NaturalOrder.sortKey(title);
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberStoredOrderIndex() {
+        storedOrderIndex = orderIndex;
+    }
+
+    /**
+     * Whether {@code orderIndex} was changed since the topic was loaded or
+     * last saved.
+     */
+    @JsonIgnore
+    public boolean isOrderIndexChanged() {
+        return !Objects.equals(orderIndex, storedOrderIndex);
+    }
 }
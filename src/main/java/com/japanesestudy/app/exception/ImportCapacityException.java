@@ -0,0 +1,22 @@
+package com.japanesestudy.app.exception;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when an import cannot be admitted right now, either because the job
+ * queue is full or because the in-flight upload budget is spent.
+ */
+public class ImportCapacityException extends RejectedExecutionException {
+
+    private final Duration retryAfter;
+
+    public ImportCapacityException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,10 @@
+package com.japanesestudy.app.model;
+
+/**
+ * Pipeline stages of an Anki deck import, in execution order.
+ */
+public enum ImportStage {
+    EXTRACT,
+    PARSE,
+    WRITE
+}
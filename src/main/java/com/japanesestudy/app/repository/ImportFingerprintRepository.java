@@ -0,0 +1,22 @@
+package com.japanesestudy.app.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.japanesestudy.app.entity.ImportFingerprint;
+
+@Repository
+public interface ImportFingerprintRepository extends JpaRepository<ImportFingerprint, Long> {
+
+    Optional<ImportFingerprint> findFirstByOwnerIdAndSha256(Long ownerId, String sha256);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM ImportFingerprint f WHERE f.courseId = :courseId")
+    int deleteByCourseId(Long courseId);
+}
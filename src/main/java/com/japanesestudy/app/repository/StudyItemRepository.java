@@ -1,7 +1,9 @@
 package com.japanesestudy.app.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,6 +21,13 @@ public interface StudyItemRepository extends JpaRepository<StudyItem, Long> {
 
     Page<StudyItem> findByTopicIdAndDeletedFalse(Long topicId, Pageable pageable);
 
+    /**
+     * Keyset page: the items of a topic with an id above {@code id}.
+     */
+    List<StudyItem> findByTopicIdAndDeletedFalseAndIdGreaterThanOrderByIdAsc(Long topicId, long id, Limit limit);
+
+    List<StudyItem> findByTopicIdInAndDeletedFalseOrderByIdAsc(Collection<Long> topicIds);
+
     long countByTopicIdAndDeletedFalse(Long topicId);
 
     @Query("SELECT COUNT(si) FROM StudyItem si WHERE si.topic.course.id = :courseId AND si.deleted = false AND si.topic.deleted = false")
@@ -45,4 +54,39 @@ public interface StudyItemRepository extends JpaRepository<StudyItem, Long> {
     @Transactional
     @Query("UPDATE StudyItem si SET si.deleted = true WHERE si.topic.id = :topicId")
     int softDeleteByTopicId(Long topicId);
+
+    /**
+     * Every item of a course, soft-deleted ones included, keyed for matching
+     * against a re-imported deck.
+     */
+    @Query(value = "SELECT si.id AS id, si.anki_guid AS ankiGuid, si.content_hash AS contentHash, "
+            + "si.primary_text AS primaryText, si.topic_id AS topicId, si.deleted AS deleted "
+            + "FROM study_items si JOIN topics t ON t.id = si.topic_id WHERE t.course_id = :courseId",
+            nativeQuery = true)
+    List<ImportedItemRow> findImportRowsByCourseId(Long courseId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE study_items SET deleted = false, version = version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int restoreByIds(Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE StudyItem si SET si.deleted = true, si.version = si.version + 1 WHERE si.id IN :ids")
+    int softDeleteByIds(Collection<Long> ids);
+
+    interface ImportedItemRow {
+
+        Long getId();
+
+        String getAnkiGuid();
+
+        String getContentHash();
+
+        String getPrimaryText();
+
+        Long getTopicId();
+
+        Boolean getDeleted();
+    }
 }
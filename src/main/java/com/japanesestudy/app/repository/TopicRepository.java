@@ -1,8 +1,10 @@
 package com.japanesestudy.app.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -20,6 +22,16 @@ public interface TopicRepository extends JpaRepository<Topic, Long> {
 
     Page<Topic> findByCourseIdAndDeletedFalse(Long courseId, Pageable pageable);
 
+    /**
+     * Keyset page: the topics after {@code (orderIndex, id)} in course order.
+     * Seeks on {@code idx_topics_course_order} instead of skipping rows;
+     * {@code order_index} is never NULL, so no topic falls outside the range.
+     */
+    @Query("SELECT t FROM Topic t WHERE t.course.id = :courseId AND t.deleted = false "
+            + "AND (t.orderIndex > :orderIndex OR (t.orderIndex = :orderIndex AND t.id > :id)) "
+            + "ORDER BY t.orderIndex ASC, t.id ASC")
+    List<Topic> findPageAfter(Long courseId, int orderIndex, long id, Limit limit);
+
     @Query("SELECT t FROM Topic t LEFT JOIN FETCH t.course WHERE t.id = :id")
     Optional<Topic> findByIdWithCourse(Long id);
 
@@ -32,8 +44,17 @@ public interface TopicRepository extends JpaRepository<Topic, Long> {
 
     long countByCourseIdAndDeletedFalse(Long courseId);
 
+    @Query("SELECT t.id FROM Topic t WHERE t.course.id = :courseId")
+    List<Long> findIdsByCourseId(Long courseId);
+
     long countByDeletedFalse();
 
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Topic t SET t.deleted = true WHERE t.id IN :ids AND NOT EXISTS "
+            + "(SELECT si.id FROM StudyItem si WHERE si.topic = t AND si.deleted = false)")
+    int softDeleteEmptyByIds(Collection<Long> ids);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Transactional
     @Query("UPDATE Topic t SET t.deleted = true WHERE t.course.id = :courseId")
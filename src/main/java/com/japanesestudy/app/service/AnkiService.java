@@ -1,39 +1,62 @@
 package com.japanesestudy.app.service;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.luben.zstd.ZstdInputStream;
+import com.japanesestudy.app.config.ImportProperties;
 import com.japanesestudy.app.dto.importing.AnkiItem;
 import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.entity.ImportFingerprint;
 import com.japanesestudy.app.entity.StudyItem;
 import com.japanesestudy.app.entity.Topic;
 import com.japanesestudy.app.entity.User;
+import com.japanesestudy.app.model.ImportStage;
 import com.japanesestudy.app.repository.CourseRepository;
+import com.japanesestudy.app.repository.ImportFingerprintRepository;
 import com.japanesestudy.app.repository.StudyItemRepository;
+import com.japanesestudy.app.repository.StudyItemRepository.ImportedItemRow;
 import com.japanesestudy.app.repository.TopicRepository;
-import com.japanesestudy.app.util.Utils.EvictAllCaches;
+import com.japanesestudy.app.util.AnkiTextSanitizer;
+import com.japanesestudy.app.util.CountingInputStream;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -42,269 +65,377 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class AnkiService {
 
-    private static final int ZIP_BUFFER_SIZE = 8192;
-    private static final int ZSTD_BUFFER_SIZE = 65536;
+    private static final int COPY_BUFFER_SIZE = 65536;
     private static final int MAX_EXPRESSION_LENGTH = 500;
     private static final int MAX_MEANING_LENGTH = 1000;
     private static final int MAX_READING_LENGTH = 500;
-    private static final String ANKI_FIELD_DELIMITER_REGEX = "\\x1f";
     private static final String WARN_TRUNCATION = "Some text was truncated to fit database limits";
     private static final int ITEMS_PER_LESSON = 20;
     private static final long ANKI2_PLACEHOLDER_SIZE_THRESHOLD = 100000;
     private static final int ANKI21B_SIZE_MULTIPLIER = 2;
+    private static final String ANKI2_SUFFIX = ".anki2";
+    private static final String ANKI21_SUFFIX = ".anki21";
+    private static final String ANKI21B_SUFFIX = ".anki21b";
+    private static final String ANKI2_ENTRY = "collection" + ANKI2_SUFFIX;
+    private static final String ANKI21_ENTRY = "collection" + ANKI21_SUFFIX;
+    private static final String ANKI21B_ENTRY = "collection" + ANKI21B_SUFFIX;
     private static final String NOTES_QUERY = """
-            SELECT flds as fields
+            SELECT guid, flds as fields
             FROM notes
-            LIMIT 10000
+            ORDER BY id
             """;
+    private static final String COUNT_NOTES_QUERY = "SELECT COUNT(*) FROM notes";
+    private static final int PROGRESS_INTERVAL = 250;
     private static final int BATCH_SIZE = 1000;
+    private static final int NOTES_FETCH_SIZE = 500;
     private static final String DEFAULT_TOPIC = "Default";
     private static final String DEFAULT_PLACEHOLDER = "-";
     private static final String COURSE_TYPE = "Custom";
+    private static final byte HASH_SEPARATOR = 0x1f;
 
     private final CourseRepository courseRepository;
     private final TopicRepository topicRepository;
     private final StudyItemRepository studyItemRepository;
+    private final ImportFingerprintRepository importFingerprintRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportProperties importProperties;
+    private final StudyItemBulkLoader studyItemBulkLoader;
+    private final EntityManager entityManager;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final StudyItemSearchService searchService;
 
-    @Transactional
-    @EvictAllCaches
     public Map<String, Object> importAnkiFile(MultipartFile file, String displayName, User owner) throws Exception {
-        File tempDir = null;
+        try (InputStream upload = file.getInputStream()) {
+            return importAnki(upload, file.getSize(), displayName, owner, ImportProgressListener.NONE);
+        }
+    }
+
+    /**
+     * Imports an .apkg stream. Extraction runs outside any transaction; notes
+     * are then streamed from the collection and written chunk by chunk in a
+     * single transaction, so a failed or cancelled import leaves no partial
+     * course behind.
+     */
+    public Map<String, Object> importAnki(InputStream upload, long uploadSize, String displayName, User owner,
+            ImportProgressListener progress) throws Exception {
+        CollectionExtraction extraction = null;
         try {
-            tempDir = extractApkgToTempDir(file);
-            File collectionFile = findCollectionDatabase(tempDir);
-            if (collectionFile == null) {
+            progress.onStage(ImportStage.EXTRACT, uploadSize);
+            extraction = extractCollectionDatabase(upload, progress);
+            if (extraction.collectionFile() == null) {
                 throw new IllegalArgumentException("Invalid Anki deck: collection database not found");
             }
 
-            ParseResult parseResult = parseAnkiDatabase(collectionFile);
-            if (parseResult.items().isEmpty()) {
-                return Map.of("message", "No valid text cards found", "skippedItems", parseResult.skippedItems());
-            }
-
             String courseName = displayName != null ? displayName.replace(".apkg", "").trim() : "Imported Course";
             if (courseName.isEmpty()) {
                 courseName = "Imported Course";
             }
 
-            deletePreviousCourses(courseName, owner);
+            Long ownerId = owner != null ? owner.getId() : null;
+            Optional<Course> alreadyImported = findImportedCourse(ownerId, extraction.sha256(), courseName);
+            if (alreadyImported.isPresent()) {
+                log.info("Skipped import of {}: identical to the deck behind course {}",
+                        displayName, alreadyImported.get().getId());
+                Map<String, Object> result = new HashMap<>();
+                result.put("message", "Deck already imported");
+                result.put("deduplicated", true);
+                result.put("coursesCreated", 0);
+                result.put("courseId", alreadyImported.get().getId());
+                result.put("courseName", alreadyImported.get().getTitle());
+                result.put("itemsCreated", 0);
+                result.put("bytesRead", extraction.bytesRead());
+                return result;
+            }
 
-            Course course = new Course(courseName, "Imported from Anki deck", COURSE_TYPE);
-            course.setOwner(owner);
-            course = courseRepository.save(course);
+            Class.forName("org.sqlite.JDBC");
+            ChunkWriter writer = new ChunkWriter(courseName, owner, progress);
+            File collectionFile = extraction.collectionFile();
+            String sha256 = extraction.sha256();
+            ParseResult parseResult = transactionTemplate.execute(status -> {
+                ParseResult parsed = streamNotes(collectionFile, progress, writer);
+                writer.finish();
+                if (writer.course != null) {
+                    recordFingerprint(ownerId, sha256, writer.course.getId());
+                    cacheEvictor.courseTreeChanged(writer.course);
+                }
+                return parsed;
+            });
+            if (writer.course == null) {
+                return Map.of("message", "No valid text cards found",
+                        "notesSeen", parseResult.notesSeen(),
+                        "skippedItems", parseResult.skippedItems());
+            }
 
-            Map<String, List<AnkiItem>> itemsByTopic = groupByTopic(parseResult.items());
-            int itemsCreated = saveItemsToDatabase(itemsByTopic, course);
+            searchService.reindexCourse(writer.course.getId());
 
-            log.info("Imported {} items from {}", itemsCreated, displayName);
+            int notesImported = writer.itemsCreated + writer.itemsUpdated + writer.itemsUnchanged;
+            log.info("Imported {} of {} notes from {}: {} created, {} updated, {} unchanged, {} deleted "
+                    + "(read {} bytes, wrote {} bytes)",
+                    notesImported, parseResult.notesSeen(), displayName, writer.itemsCreated, writer.itemsUpdated,
+                    writer.itemsUnchanged, writer.itemsDeleted, extraction.bytesRead(), extraction.bytesWritten());
 
             Map<String, Object> result = new HashMap<>();
             result.put("message", "Import successful");
-            result.put("coursesCreated", 1);
-            result.put("courseId", course.getId());
-            result.put("courseName", course.getTitle());
-            result.put("topicsCreated", itemsByTopic.size());
-            result.put("itemsCreated", itemsCreated);
-            result.put("skippedItems", parseResult.skippedItems());
+            result.put("deduplicated", false);
+            result.put("coursesCreated", writer.courseCreated ? 1 : 0);
+            result.put("courseId", writer.course.getId());
+            result.put("courseName", writer.course.getTitle());
+            result.put("topicsCreated", writer.topicsCreated);
+            result.put("itemsCreated", writer.itemsCreated);
+            result.put("itemsUpdated", writer.itemsUpdated);
+            result.put("itemsUnchanged", writer.itemsUnchanged);
+            result.put("itemsDeleted", writer.itemsDeleted);
+            result.put("notesSeen", parseResult.notesSeen());
+            result.put("notesImported", notesImported);
+            result.put("skippedItems", parseResult.skippedItems() + writer.duplicateNotes);
             result.put("warnings", parseResult.warnings());
+            result.put("stageMillis", parseResult.timings().toMillis());
+            result.put("bytesRead", extraction.bytesRead());
+            result.put("bytesWritten", extraction.bytesWritten());
             return result;
         } finally {
-            deleteDirectory(tempDir);
+            if (extraction != null) {
+                deleteDirectory(extraction.tempDir());
+            }
         }
     }
 
-    private File extractApkgToTempDir(MultipartFile file) throws Exception {
+    /**
+     * Streams the upload through a zip reader and writes only the collection
+     * database entries to disk. Media blobs are inflated past without being
+     * written, and .anki21b entries are zstd-decompressed on the fly so the
+     * SQLite file is produced in a single pass.
+     */
+    private CollectionExtraction extractCollectionDatabase(InputStream upload, ImportProgressListener progress)
+            throws IOException {
         File tempDir = Files.createTempDirectory("anki-import").toFile();
-        try (ZipInputStream zis = new ZipInputStream(file.getInputStream())) {
+        DigestInputStream digest = new DigestInputStream(upload, sha256());
+        CountingInputStream counter = new CountingInputStream(digest);
+        Map<String, File> extracted = new HashMap<>();
+        long anki21bSize = 0;
+        long bytesWritten = 0;
+        try (ZipInputStream zis = new ZipInputStream(counter)) {
             ZipEntry entry;
             while ((entry = zis.getNextEntry()) != null) {
-                File extractedFile = new File(tempDir, entry.getName());
-                if (!entry.isDirectory()) {
-                    extractedFile.getParentFile().mkdirs();
-                    try (FileOutputStream fos = new FileOutputStream(extractedFile)) {
-                        byte[] buffer = new byte[ZIP_BUFFER_SIZE];
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
+                progress.checkCancelled();
+                progress.onProgress(counter.getCount());
+                String key = entry.isDirectory() ? null : collectionKey(entry.getName());
+                if (key == null || extracted.containsKey(key)) {
+                    continue;
+                }
+                if (key.endsWith(ANKI21B_SUFFIX)) {
+                    File target = new File(tempDir, entry.getName().replace(ANKI21B_SUFFIX, "_decompressed.anki2"));
+                    CountingInputStream compressed = new CountingInputStream(nonClosing(zis));
+                    try (ZstdInputStream zstd = new ZstdInputStream(compressed)) {
+                        bytesWritten += copyToFile(zstd, target);
+                        extracted.put(key, target);
+                        if (key.equals(ANKI21B_ENTRY)) {
+                            anki21bSize = compressed.getCount();
                         }
+                    } catch (IOException e) {
+                        log.error("Failed to decompress {}: {}", entry.getName(), e.getMessage());
+                        target.delete();
                     }
+                } else {
+                    File target = new File(tempDir, entry.getName());
+                    bytesWritten += copyToFile(zis, target);
+                    extracted.put(key, target);
                 }
             }
+            // The zip reader stops at the central directory; hash the rest of the file too.
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            while (counter.read(buffer) >= 0) {
+                // drain
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteDirectory(tempDir);
+            throw e;
         }
-        return tempDir;
-    }
+        progress.onProgress(counter.getCount());
 
-    private File findCollectionDatabase(File tempDir) {
-        File anki2File = new File(tempDir, "collection.anki2");
-        File anki21File = new File(tempDir, "collection.anki21");
-        File anki21bFile = new File(tempDir, "collection.anki21b");
-
-        if (anki21bFile.exists()) {
-            long anki21bSize = anki21bFile.length();
-            long anki2Size = anki2File.exists() ? anki2File.length() : 0;
-            if (anki21bSize > anki2Size * ANKI21B_SIZE_MULTIPLIER || anki2Size < ANKI2_PLACEHOLDER_SIZE_THRESHOLD) {
-                File decompressedFile = new File(tempDir, "collection_decompressed.anki2");
-                try {
-                    decompressZstd(anki21bFile, decompressedFile);
-                    return decompressedFile;
-                } catch (java.io.IOException e) {
-                    log.error("Failed to decompress .anki21b: {}", e.getMessage());
-                }
+        File collectionFile = selectCollectionDatabase(extracted, anki21bSize);
+        for (File candidate : extracted.values()) {
+            if (!candidate.equals(collectionFile)) {
+                candidate.delete();
             }
         }
+        String sha256 = HexFormat.of().formatHex(digest.getMessageDigest().digest());
+        return new CollectionExtraction(tempDir, collectionFile, counter.getCount(), bytesWritten, sha256);
+    }
 
-        if (anki2File.exists()) {
-            return anki2File;
+    private static String collectionKey(String entryName) {
+        if (entryName.indexOf('/') >= 0 || entryName.indexOf('\\') >= 0) {
+            return null;
         }
-        if (anki21File.exists()) {
-            return anki21File;
+        if (entryName.equals(ANKI2_ENTRY) || entryName.equals(ANKI21_ENTRY) || entryName.equals(ANKI21B_ENTRY)) {
+            return entryName;
         }
-
-        File[] files = tempDir.listFiles();
-        if (files != null) {
-            for (File f : files) {
-                if (f.getName().endsWith(".anki21b")) {
-                    File decompressedFile = new File(tempDir, f.getName().replace(".anki21b", "_decompressed.anki2"));
-                    try {
-                        decompressZstd(f, decompressedFile);
-                        return decompressedFile;
-                    } catch (java.io.IOException e) {
-                        log.error("Failed to decompress {}: {}", f.getName(), e.getMessage());
-                    }
-                }
+        for (String suffix : new String[]{ANKI21B_SUFFIX, ANKI2_SUFFIX, ANKI21_SUFFIX}) {
+            if (entryName.endsWith(suffix)) {
+                return "*" + suffix;
             }
-            for (File f : files) {
-                if (f.getName().endsWith(".anki2")) {
-                    return f;
-                }
+        }
+        return null;
+    }
+
+    private File selectCollectionDatabase(Map<String, File> extracted, long anki21bSize) {
+        File anki2File = extracted.get(ANKI2_ENTRY);
+        File anki21bFile = extracted.get(ANKI21B_ENTRY);
+
+        if (anki21bFile != null) {
+            long anki2Size = anki2File != null ? anki2File.length() : 0;
+            if (anki21bSize > anki2Size * ANKI21B_SIZE_MULTIPLIER || anki2Size < ANKI2_PLACEHOLDER_SIZE_THRESHOLD) {
+                return anki21bFile;
             }
-            for (File f : files) {
-                if (f.getName().endsWith(".anki21")) {
-                    return f;
-                }
+        }
+        if (anki2File != null) {
+            return anki2File;
+        }
+        for (String key : new String[]{ANKI21_ENTRY, "*" + ANKI21B_SUFFIX, "*" + ANKI2_SUFFIX, "*" + ANKI21_SUFFIX}) {
+            File f = extracted.get(key);
+            if (f != null) {
+                return f;
             }
         }
         return null;
     }
 
-    private void decompressZstd(File input, File output) throws java.io.IOException {
-        try (FileInputStream fis = new FileInputStream(input); ZstdInputStream zis = new ZstdInputStream(fis); FileOutputStream fos = new FileOutputStream(output)) {
-            byte[] buffer = new byte[ZSTD_BUFFER_SIZE];
+    private long copyToFile(InputStream in, File target) throws IOException {
+        long written = 0;
+        try (FileOutputStream fos = new FileOutputStream(target)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
             int len;
-            while ((len = zis.read(buffer)) > 0) {
+            while ((len = in.read(buffer)) > 0) {
                 fos.write(buffer, 0, len);
+                written += len;
             }
         }
+        return written;
     }
 
-    private ParseResult parseAnkiDatabase(File collectionFile) throws Exception {
-        List<AnkiItem> items = new ArrayList<>();
-        int skippedItems = 0;
-        List<String> warnings = new ArrayList<>();
+    private static InputStream nonClosing(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+                // The zip stream owns the underlying upload and is closed by the caller.
+            }
+        };
+    }
 
-        Class.forName("org.sqlite.JDBC");
+    /**
+     * Runs the notes table through the import pipeline: one thread walks the
+     * cursor in batches, {@code app.import.transform-threads} threads sanitize
+     * and map fields, and the calling thread hands the results to
+     * {@code writer} in cursor order, so only a few batches are held in
+     * memory whatever the deck size.
+     */
+    private ParseResult streamNotes(File collectionFile, ImportProgressListener progress, ChunkWriter writer) {
+        AtomicInteger notesSeen = new AtomicInteger();
         String url = "jdbc:sqlite:" + collectionFile.getAbsolutePath();
-        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+        try (Connection conn = DriverManager.getConnection(url);
+                Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             List<String> fieldNames = getFieldNamesFromModels(conn);
+            writer.notesTotal = countNotes(conn);
+            progress.onStage(ImportStage.PARSE, writer.notesTotal);
+            stmt.setFetchSize(NOTES_FETCH_SIZE);
+
+            ImportPipeline<RawNote, PreparedNote> pipeline = new ImportPipeline<>(
+                    importProperties.getTransformThreads(), importProperties.getPipelineBatchesInFlight(), progress);
+            ImportPipeline.Timings timings = pipeline.run(
+                    emit -> readNotes(stmt, progress, notesSeen, emit),
+                    batch -> prepareNotes(batch, fieldNames),
+                    writer::add);
+            writer.flush();
+
+            List<String> warnings = writer.truncated ? List.of(WARN_TRUNCATION) : List.of();
+            log.info("Parsed {} cards from {} notes, skipped {} (stage ms: {})",
+                    writer.notesAccepted, notesSeen.get(), writer.notesSkipped, timings.toMillis());
+            return new ParseResult(notesSeen.get(), writer.notesAccepted, writer.notesSkipped, warnings, timings);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read Anki collection: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import interrupted");
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Import failed: " + e.getMessage(), e);
+        }
+    }
 
-            try (ResultSet rs = stmt.executeQuery(NOTES_QUERY)) {
-                while (rs.next()) {
-                    String fields = rs.getString("fields");
-                    if (fields == null || fields.trim().isEmpty()
-                            || fields.contains("Please update to the latest Anki version")) {
-                        skippedItems++;
-                        continue;
-                    }
-
-                    String[] parts = fields.split(ANKI_FIELD_DELIMITER_REGEX);
-                    String expression = parts.length > 0 ? cleanText(parts[0]) : "";
-                    String reading = parts.length > 1 ? cleanText(parts[1]) : "";
-                    String meaning = parts.length > 2 ? cleanText(parts[2]) : "";
-
-                    if (expression.trim().isEmpty()) {
-                        for (String part : parts) {
-                            String cleaned = cleanText(part);
-                            if (!cleaned.trim().isEmpty()) {
-                                expression = cleaned;
-                                break;
-                            }
-                        }
-                    }
-
-                    if (expression.trim().isEmpty() && meaning.trim().isEmpty()) {
-                        skippedItems++;
-                        continue;
-                    }
-
-                    AnkiItem item = new AnkiItem();
-                    item.setFront(expression.length() <= MAX_EXPRESSION_LENGTH ? expression : expression.substring(0, MAX_EXPRESSION_LENGTH));
-                    item.setReading(reading.isEmpty() ? null : (reading.length() <= MAX_READING_LENGTH ? reading : reading.substring(0, MAX_READING_LENGTH)));
-                    item.setBack(meaning.length() <= MAX_MEANING_LENGTH ? meaning : meaning.substring(0, MAX_MEANING_LENGTH));
-                    item.setFields(buildFieldsMap(parts, fieldNames));
-                    item.setTopic(String.format("Lesson %02d", (items.size() / ITEMS_PER_LESSON) + 1));
-
-                    items.add(item);
-
-                    if (expression.length() > MAX_EXPRESSION_LENGTH || meaning.length() > MAX_MEANING_LENGTH) {
-                        if (!warnings.contains(WARN_TRUNCATION)) {
-                            warnings.add(WARN_TRUNCATION);
-                        }
-                    }
+    private void readNotes(Statement stmt, ImportProgressListener progress, AtomicInteger notesSeen,
+            Consumer<List<RawNote>> emit) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(NOTES_QUERY)) {
+            List<RawNote> batch = new ArrayList<>(PROGRESS_INTERVAL);
+            while (rs.next()) {
+                batch.add(new RawNote(rs.getString("guid"), rs.getString("fields")));
+                if (batch.size() == PROGRESS_INTERVAL) {
+                    progress.checkCancelled();
+                    progress.onProgress(notesSeen.addAndGet(batch.size()));
+                    emit.accept(batch);
+                    batch = new ArrayList<>(PROGRESS_INTERVAL);
                 }
             }
+            if (!batch.isEmpty()) {
+                progress.onProgress(notesSeen.addAndGet(batch.size()));
+                emit.accept(batch);
+            }
         }
-
-        log.info("Parsed {} cards, skipped {}", items.size(), skippedItems);
-        return new ParseResult(items, skippedItems, warnings);
     }
 
-    private Map<String, List<AnkiItem>> groupByTopic(List<AnkiItem> items) {
-        Map<String, List<AnkiItem>> itemsByTopic = new TreeMap<>((a, b) -> {
-            String left = a == null ? "" : a;
-            String right = b == null ? "" : b;
-            java.util.regex.Matcher mA = java.util.regex.Pattern.compile("\\d+").matcher(left);
-            java.util.regex.Matcher mB = java.util.regex.Pattern.compile("\\d+").matcher(right);
-            int numA = mA.find() ? Integer.parseInt(mA.group()) : Integer.MAX_VALUE;
-            int numB = mB.find() ? Integer.parseInt(mB.group()) : Integer.MAX_VALUE;
-            return numA != numB ? numA - numB : left.compareToIgnoreCase(right);
-        });
-        for (AnkiItem item : items) {
-            String topicName = item.getTopic() != null ? item.getTopic() : DEFAULT_TOPIC;
-            itemsByTopic.computeIfAbsent(topicName, k -> new ArrayList<>()).add(item);
-        }
-        return itemsByTopic;
-    }
+    /**
+     * Transform stage: sanitizes a batch of raw notes and resolves their study
+     * item fields. Runs on pipeline threads, so it must not touch the
+     * persistence context. Skipped notes come back as {@code null} entries.
+     */
+    private List<PreparedNote> prepareNotes(List<RawNote> batch, List<String> fieldNames) {
+        MessageDigest digest = sha256();
+        List<PreparedNote> prepared = new ArrayList<>(batch.size());
+        for (RawNote note : batch) {
+            String fields = note.fields();
+            if (fields == null || fields.trim().isEmpty()
+                    || fields.contains("Please update to the latest Anki version")) {
+                prepared.add(null);
+                continue;
+            }
 
-    private int saveItemsToDatabase(Map<String, List<AnkiItem>> itemsByTopic, Course course) {
-        int topicOrder = 0;
-        int itemsCreated = 0;
-
-        for (Map.Entry<String, List<AnkiItem>> entry : itemsByTopic.entrySet()) {
-            Topic topic = new Topic();
-            topic.setTitle(entry.getKey());
-            topic.setCourse(course);
-            topic.setOrderIndex(topicOrder++);
-            topic = topicRepository.save(topic);
-
-            List<StudyItem> batch = new ArrayList<>();
-            for (AnkiItem ankiItem : entry.getValue()) {
-                StudyItem studyItem = createStudyItem(ankiItem, topic);
-                batch.add(studyItem);
-                if (batch.size() >= BATCH_SIZE) {
-                    studyItemRepository.saveAll(batch);
-                    studyItemRepository.flush();
-                    itemsCreated += batch.size();
-                    batch.clear();
+            String[] parts = AnkiTextSanitizer.splitFields(fields);
+            String[] cleaned = new String[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                cleaned[i] = AnkiTextSanitizer.clean(parts[i]);
+            }
+            String expression = cleaned.length > 0 ? cleaned[0] : "";
+            String reading = cleaned.length > 1 ? cleaned[1] : "";
+            String meaning = cleaned.length > 2 ? cleaned[2] : "";
+
+            if (expression.isEmpty()) {
+                for (String part : cleaned) {
+                    if (!part.isEmpty()) {
+                        expression = part;
+                        break;
+                    }
                 }
             }
-            if (!batch.isEmpty()) {
-                studyItemRepository.saveAll(batch);
-                studyItemRepository.flush();
-                itemsCreated += batch.size();
-                batch.clear();
+
+            if (expression.trim().isEmpty() && meaning.trim().isEmpty()) {
+                prepared.add(null);
+                continue;
             }
+
+            AnkiItem item = new AnkiItem();
+            item.setGuid(note.guid());
+            item.setFront(expression.length() <= MAX_EXPRESSION_LENGTH ? expression : expression.substring(0, MAX_EXPRESSION_LENGTH));
+            item.setReading(reading.isEmpty() ? null : (reading.length() <= MAX_READING_LENGTH ? reading : reading.substring(0, MAX_READING_LENGTH)));
+            item.setBack(meaning.length() <= MAX_MEANING_LENGTH ? meaning : meaning.substring(0, MAX_MEANING_LENGTH));
+            item.setFields(buildFieldsMap(cleaned, fieldNames));
+
+            StudyItem candidate = createStudyItem(item, null);
+            candidate.setAnkiGuid(note.guid());
+            candidate.setContentHash(contentHash(candidate, digest));
+            boolean truncated = expression.length() > MAX_EXPRESSION_LENGTH || meaning.length() > MAX_MEANING_LENGTH;
+            prepared.add(new PreparedNote(candidate, truncated, null));
         }
-        return itemsCreated;
+        return prepared;
     }
 
     private StudyItem createStudyItem(AnkiItem ankiItem, Topic topic) {
@@ -346,29 +477,27 @@ public class AnkiService {
         return studyItem;
     }
 
-    private void deletePreviousCourses(String courseName, User owner) {
-        List<Course> existingCourses = owner == null
-                ? courseRepository.findByTitle(courseName)
-                : courseRepository.findByTitleAndOwner_Id(courseName, owner.getId());
-        courseRepository.deleteAll(existingCourses);
-        courseRepository.flush();
+    /**
+     * Returns the course a byte-identical upload from the same owner was
+     * imported into, provided it still exists under the same title.
+     */
+    private Optional<Course> findImportedCourse(Long ownerId, String sha256, String courseTitle) {
+        return importFingerprintRepository.findFirstByOwnerIdAndSha256(ownerId, sha256)
+                .flatMap(fingerprint -> courseRepository.findById(fingerprint.getCourseId()))
+                .filter(course -> courseTitle.equals(course.getTitle()));
     }
 
-    private String cleanText(String text) {
-        if (text == null) {
-            return "";
-        }
-        text = text.replaceAll("\\[sound:[^\\]]+\\]", "")
-                .replaceAll("<img[^>]+>", "")
-                .replaceAll("\\[anki:play:[^\\]]+\\]", "")
-                .replaceAll("<[^>]+>", "");
-        return text.replace("&nbsp;", " ")
-                .replace("&lt;", "<")
-                .replace("&gt;", ">")
-                .replace("&amp;", "&")
-                .replace("&quot;", "\"")
-                .replaceAll("\\s+", " ")
-                .trim();
+    /**
+     * Points the fingerprint at the course. Fingerprints of files previously
+     * imported into the course are dropped, since its content now follows
+     * this file.
+     */
+    private void recordFingerprint(Long ownerId, String sha256, Long courseId) {
+        importFingerprintRepository.deleteByCourseId(courseId);
+        ImportFingerprint fingerprint = importFingerprintRepository.findFirstByOwnerIdAndSha256(ownerId, sha256)
+                .orElseGet(() -> new ImportFingerprint(ownerId, sha256, courseId));
+        fingerprint.setCourseId(courseId);
+        importFingerprintRepository.save(fingerprint);
     }
 
     private void deleteDirectory(File directory) {
@@ -388,6 +517,15 @@ public class AnkiService {
         directory.delete();
     }
 
+    private long countNotes(Connection conn) {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(COUNT_NOTES_QUERY)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            log.warn("Could not count notes: {}", e.getMessage());
+            return 0;
+        }
+    }
+
     private List<String> getFieldNamesFromModels(Connection conn) {
         List<String> fieldNames = new ArrayList<>();
         try (Statement stmt = conn.createStatement()) {
@@ -421,10 +559,10 @@ public class AnkiService {
         return fieldNames;
     }
 
-    private Map<String, String> buildFieldsMap(String[] parts, List<String> fieldNames) {
+    private Map<String, String> buildFieldsMap(String[] cleanedParts, List<String> fieldNames) {
         Map<String, String> fieldsMap = new HashMap<>();
-        for (int i = 0; i < parts.length; i++) {
-            String cleaned = cleanText(parts[i]);
+        for (int i = 0; i < cleanedParts.length; i++) {
+            String cleaned = cleanedParts[i];
             if (!cleaned.isEmpty()) {
                 String fieldName = i < fieldNames.size() ? fieldNames.get(i) : "Field" + (i + 1);
                 fieldsMap.put(fieldName, cleaned);
@@ -433,7 +571,277 @@ public class AnkiService {
         return fieldsMap;
     }
 
-    public record ParseResult(List<AnkiItem> items, int skippedItems, List<String> warnings) {
+    public record ParseResult(int notesSeen, int itemsParsed, int skippedItems, List<String> warnings,
+            ImportPipeline.Timings timings) {
+
+    }
+
+    private record RawNote(String guid, String fields) {
+
+    }
+
+    /**
+     * A transformed note ready for the writer. The lesson is assigned by the
+     * writer, which sees notes in deck order.
+     */
+    private record PreparedNote(StudyItem item, boolean truncated, String lesson) {
+
+        PreparedNote withLesson(String lesson) {
+            return new PreparedNote(item, truncated, lesson);
+        }
+    }
+
+    /**
+     * Applies parsed notes to the course chunk by chunk inside the import
+     * transaction. On a re-import the existing course is diffed by note guid:
+     * new notes are inserted, changed notes updated in place and notes gone
+     * from the deck soft-deleted, so item ids and learners' progress survive.
+     * Items imported before guids were stored are matched once by their
+     * primary text and adopt the guid. Nothing is touched until the first
+     * chunk arrives, so a deck without usable notes leaves existing data alone.
+     */
+    private final class ChunkWriter {
+
+        private final String courseTitle;
+        private final User owner;
+        private final ImportProgressListener progress;
+        private final Map<String, ImportedItemRow> existingByGuid = new HashMap<>();
+        private final Map<String, ArrayDeque<ImportedItemRow>> legacyByPrimaryText = new HashMap<>();
+        private final Map<String, Topic> topicsByTitle = new HashMap<>();
+        private final Set<String> seenGuids = new HashSet<>();
+        private final List<PreparedNote> pending = new ArrayList<>(BATCH_SIZE);
+        private long notesTotal;
+        private int notesAccepted;
+        private int notesSkipped;
+        private boolean truncated;
+        private Course course;
+        private boolean courseCreated;
+        private Topic topic;
+        private int nextTopicOrder;
+        private int topicsCreated;
+        private int notesProcessed;
+        private int itemsCreated;
+        private int itemsUpdated;
+        private int itemsUnchanged;
+        private int itemsDeleted;
+        private int duplicateNotes;
+
+        private ChunkWriter(String courseTitle, User owner, ImportProgressListener progress) {
+            this.courseTitle = courseTitle;
+            this.owner = owner;
+            this.progress = progress;
+        }
+
+        /**
+         * Numbers transformed notes into lessons in deck order and writes
+         * them in chunks of {@link #BATCH_SIZE}.
+         */
+        private void add(List<PreparedNote> notes) {
+            for (PreparedNote note : notes) {
+                if (note == null) {
+                    notesSkipped++;
+                    continue;
+                }
+                truncated |= note.truncated();
+                pending.add(note.withLesson(String.format("Lesson %02d", (notesAccepted / ITEMS_PER_LESSON) + 1)));
+                notesAccepted++;
+                if (pending.size() == BATCH_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() {
+            if (!pending.isEmpty()) {
+                write(pending);
+                pending.clear();
+            }
+        }
+
+        private void write(List<PreparedNote> chunk) {
+            if (course == null) {
+                progress.onStage(ImportStage.WRITE, notesTotal);
+                openCourse();
+            }
+
+            List<StudyItem> inserts = new ArrayList<>();
+            Map<Long, StudyItem> updates = new HashMap<>();
+            List<Long> restores = new ArrayList<>();
+            for (PreparedNote note : chunk) {
+                StudyItem candidate = note.item();
+                String guid = candidate.getAnkiGuid();
+                if (guid != null && !seenGuids.add(guid)) {
+                    duplicateNotes++;
+                    continue;
+                }
+
+                ImportedItemRow row = match(guid, candidate.getPrimaryText());
+                if (row == null) {
+                    candidate.setTopic(topicFor(note.lesson()));
+                    inserts.add(candidate);
+                } else if (Boolean.TRUE.equals(row.getDeleted())) {
+                    // Its old topic may be gone, so a restored item is placed like a new one.
+                    candidate.setTopic(topicFor(note.lesson()));
+                    restores.add(row.getId());
+                    updates.put(row.getId(), candidate);
+                } else if (candidate.getContentHash().equals(row.getContentHash())
+                        && Objects.equals(guid, row.getAnkiGuid())) {
+                    itemsUnchanged++;
+                } else {
+                    updates.put(row.getId(), candidate);
+                }
+            }
+
+            if (!inserts.isEmpty()) {
+                if (importProperties.isBulkLoad()) {
+                    // New topics must reach the database before rows that reference them.
+                    entityManager.flush();
+                    studyItemBulkLoader.insert(inserts);
+                } else {
+                    studyItemRepository.saveAll(inserts);
+                }
+                itemsCreated += inserts.size();
+            }
+            if (!restores.isEmpty()) {
+                studyItemRepository.restoreByIds(restores);
+            }
+            if (!updates.isEmpty()) {
+                for (StudyItem existing : studyItemRepository.findAllById(updates.keySet())) {
+                    StudyItem candidate = updates.get(existing.getId());
+                    existing.setPrimaryText(candidate.getPrimaryText());
+                    existing.setSecondaryText(candidate.getSecondaryText());
+                    existing.setMeaning(candidate.getMeaning());
+                    existing.setAdditionalData(candidate.getAdditionalData());
+                    existing.setAnkiGuid(candidate.getAnkiGuid());
+                    existing.setContentHash(candidate.getContentHash());
+                    if (candidate.getTopic() != null) {
+                        existing.setTopic(candidate.getTopic());
+                    }
+                }
+                itemsUpdated += updates.size();
+            }
+            studyItemRepository.flush();
+            // Drop the flushed items so the persistence context stays one chunk deep.
+            entityManager.clear();
+
+            notesProcessed += chunk.size();
+            progress.onItemsWritten(notesProcessed);
+            progress.checkCancelled();
+        }
+
+        /**
+         * Soft-deletes items whose notes were not in the deck, and topics
+         * left empty by that.
+         */
+        private void finish() {
+            if (course == null) {
+                return;
+            }
+            List<Long> removed = new ArrayList<>();
+            Set<Long> affectedTopics = new HashSet<>();
+            existingByGuid.values().forEach(row -> collectRemoved(row, removed, affectedTopics));
+            legacyByPrimaryText.values().forEach(rows -> rows.forEach(row -> collectRemoved(row, removed, affectedTopics)));
+            for (int from = 0; from < removed.size(); from += BATCH_SIZE) {
+                itemsDeleted += studyItemRepository.softDeleteByIds(
+                        removed.subList(from, Math.min(from + BATCH_SIZE, removed.size())));
+            }
+            if (!affectedTopics.isEmpty()) {
+                topicRepository.softDeleteEmptyByIds(affectedTopics);
+            }
+        }
+
+        private void collectRemoved(ImportedItemRow row, List<Long> removed, Set<Long> affectedTopics) {
+            if (!Boolean.TRUE.equals(row.getDeleted())) {
+                removed.add(row.getId());
+                affectedTopics.add(row.getTopicId());
+            }
+        }
+
+        private void openCourse() {
+            List<Course> existingCourses = owner == null
+                    ? courseRepository.findByTitle(courseTitle)
+                    : courseRepository.findByTitleAndOwner_Id(courseTitle, owner.getId());
+            course = existingCourses.stream().min(Comparator.comparing(Course::getId)).orElse(null);
+            if (course == null) {
+                Course created = new Course(courseTitle, "Imported from Anki deck", COURSE_TYPE);
+                created.setOwner(owner);
+                course = courseRepository.save(created);
+                courseCreated = true;
+                return;
+            }
+
+            for (ImportedItemRow row : studyItemRepository.findImportRowsByCourseId(course.getId())) {
+                if (row.getAnkiGuid() != null) {
+                    existingByGuid.put(row.getAnkiGuid(), row);
+                } else if (!Boolean.TRUE.equals(row.getDeleted())) {
+                    legacyByPrimaryText.computeIfAbsent(row.getPrimaryText(), k -> new ArrayDeque<>()).add(row);
+                }
+            }
+            for (Topic existing : topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(course.getId())) {
+                topicsByTitle.putIfAbsent(existing.getTitle(), existing);
+                if (existing.getOrderIndex() != null) {
+                    nextTopicOrder = Math.max(nextTopicOrder, existing.getOrderIndex() + 1);
+                }
+            }
+        }
+
+        private ImportedItemRow match(String guid, String primaryText) {
+            ImportedItemRow row = guid != null ? existingByGuid.remove(guid) : null;
+            if (row == null) {
+                ArrayDeque<ImportedItemRow> legacy = legacyByPrimaryText.get(primaryText);
+                row = legacy != null ? legacy.poll() : null;
+            }
+            return row;
+        }
+
+        private Topic topicFor(String lesson) {
+            String topicName = lesson != null ? lesson : DEFAULT_TOPIC;
+            if (topic != null && topic.getTitle().equals(topicName)) {
+                return topic;
+            }
+            topic = topicsByTitle.get(topicName);
+            if (topic == null) {
+                Topic created = new Topic();
+                created.setTitle(topicName);
+                created.setCourse(course);
+                created.setOrderIndex(nextTopicOrder++);
+                topic = topicRepository.save(created);
+                topicsByTitle.put(topicName, topic);
+                topicsCreated++;
+            }
+            return topic;
+        }
+    }
+
+    private static String contentHash(StudyItem item, MessageDigest digest) {
+        digest.reset();
+        updateHash(digest, item.getPrimaryText());
+        updateHash(digest, item.getSecondaryText());
+        updateHash(digest, item.getMeaning());
+        for (Map.Entry<String, String> field : new TreeMap<>(item.getAdditionalData()).entrySet()) {
+            updateHash(digest, field.getKey());
+            updateHash(digest, field.getValue());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateHash(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(HASH_SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CollectionExtraction(File tempDir, File collectionFile, long bytesRead, long bytesWritten,
+            String sha256) {
 
     }
 }
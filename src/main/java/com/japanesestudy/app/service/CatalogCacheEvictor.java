@@ -0,0 +1,175 @@
+package com.japanesestudy.app.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.entity.Topic;
+import com.japanesestudy.app.repository.TopicRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evicts only the catalog cache entries a write can have changed, keyed the
+ * same way as the {@code @Cacheable} methods in {@link CatalogService}:
+ * <ul>
+ *   <li>{@code courses}: the full list ({@link SimpleKey#EMPTY}) and the owner's list</li>
+ *   <li>{@code courseById}, {@code topicsByCourse}, {@code courseTree}: the course id</li>
+ *   <li>{@code itemsByTopic}: the topic id plus every {@code topic:<id>:limit:<n>} variant,
+ *       and the {@code courseTree} entry of the topic's course</li>
+ * </ul>
+ *
+ * <p>Every change that drops a {@code courseTree} entry also bumps the
+ * course's {@link #treeGeneration(long) tree generation}, so a tree whose
+ * rows were read before the change is recognised as stale even if it lands
+ * in the cache after the eviction.
+ *
+ * <p>Inside a transaction the evictions run once it completes, so a read
+ * racing the write cannot put the old rows back before they are committed.
+ * They also run on rollback, since controllers edit cached entities in place
+ * before saving them.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheEvictor {
+
+    private final CacheManager cacheManager;
+    private final TopicRepository topicRepository;
+    private final Map<Long, Long> treeGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * Counter bumped by every committed or rolled back change under the
+     * course. A tree built from rows read at generation {@code g} is current
+     * only while this still returns {@code g}.
+     */
+    public long treeGeneration(long courseId) {
+        return treeGenerations.getOrDefault(courseId, 0L);
+    }
+
+    /**
+     * A course was created or its own fields changed.
+     */
+    public void courseChanged(Course course) {
+        Long ownerId = course.getOwner() != null ? course.getOwner().getId() : null;
+        long courseId = course.getId();
+        afterCompletion(() -> evictCourse(courseId, ownerId));
+    }
+
+    /**
+     * A course and everything under it changed or went away. Topic ids are
+     * looked up now, while the topics still exist.
+     */
+    public void courseTreeChanged(Course course) {
+        Long ownerId = course.getOwner() != null ? course.getOwner().getId() : null;
+        long courseId = course.getId();
+        List<Long> topicIds = topicRepository.findIdsByCourseId(courseId);
+        afterCompletion(() -> {
+            evictCourse(courseId, ownerId);
+            evict("topicsByCourse", courseId);
+            topicIds.forEach(this::evictItems);
+        });
+    }
+
+    /**
+     * A topic was created, renamed, reordered or deleted.
+     */
+    public void topicChanged(Topic topic) {
+        Long courseId = topic.getCourse() != null ? topic.getCourse().getId() : null;
+        if (courseId != null) {
+            afterCompletion(() -> evictTopics(courseId));
+        }
+    }
+
+    /**
+     * Several topics of one course changed at once, e.g. a bulk upsert or a
+     * reorder.
+     */
+    public void topicsChanged(long courseId) {
+        afterCompletion(() -> evictTopics(courseId));
+    }
+
+    /**
+     * A topic was deleted along with its items.
+     */
+    public void topicDeleted(Topic topic) {
+        topicChanged(topic);
+        long topicId = topic.getId();
+        afterCompletion(() -> evictItems(topicId));
+    }
+
+    /**
+     * Items of {@code topic} were created, updated or deleted.
+     */
+    public void itemsChanged(Topic topic) {
+        long topicId = topic.getId();
+        Long courseId = topic.getCourse() != null ? topic.getCourse().getId() : null;
+        afterCompletion(() -> {
+            evictItems(topicId);
+            if (courseId != null) {
+                evictTree(courseId);
+            }
+        });
+    }
+
+    private void evictCourse(long courseId, Long ownerId) {
+        evict("courses", SimpleKey.EMPTY);
+        if (ownerId != null) {
+            evict("courses", ownerId);
+        }
+        evict("courseById", courseId);
+        evictTree(courseId);
+    }
+
+    private void evictTopics(long courseId) {
+        evict("topicsByCourse", courseId);
+        evictTree(courseId);
+    }
+
+    private void evictTree(long courseId) {
+        // Bump first: a build racing this eviction must not look current.
+        treeGenerations.merge(courseId, 1L, Long::sum);
+        evict("courseTree", courseId);
+    }
+
+    private void evictItems(long topicId) {
+        evict("itemsByTopic", topicId);
+        Cache cache = cacheManager.getCache("itemsByTopic");
+        if (cache instanceof CaffeineCache caffeineCache) {
+            String prefix = "topic:" + topicId + ":limit:";
+            caffeineCache.getNativeCache().asMap().keySet()
+                    .removeIf(key -> key instanceof String text && text.startsWith(prefix));
+        } else if (cache != null) {
+            // No way to find the limited variants without the native map.
+            cache.clear();
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private static void afterCompletion(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+}
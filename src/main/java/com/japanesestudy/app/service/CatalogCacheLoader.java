@@ -0,0 +1,93 @@
+package com.japanesestudy.app.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicView;
+import com.japanesestudy.app.repository.CourseRepository;
+import com.japanesestudy.app.repository.StudyItemRepository;
+import com.japanesestudy.app.repository.TopicRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reloads catalog cache entries straight from the repositories so Caffeine
+ * can refresh a stale entry in the background without going back through
+ * {@link CatalogService} and its cache interceptor. Keys mirror the ones the
+ * {@code @Cacheable} methods in {@link CatalogService} use.
+ *
+ * <p>Returns null for a key it does not recognise, which drops the entry and
+ * lets the next call load it through the service method again.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheLoader {
+
+    private static final String LIMITED_ITEMS_PREFIX = "topic:";
+    private static final String LIMITED_ITEMS_SEPARATOR = ":limit:";
+
+    private final CourseRepository courseRepository;
+    private final TopicRepository topicRepository;
+    private final StudyItemRepository studyItemRepository;
+
+    public Object load(String cacheName, Object key) {
+        return switch (cacheName) {
+            case "courses" -> loadCourses(key);
+            case "courseById" -> key instanceof Long courseId ? courseRepository.findById(courseId) : null;
+            case "topicsByCourse" -> key instanceof Long courseId
+                    ? TopicView.listOf(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId))
+                    : null;
+            case "itemsByTopic" -> loadItems(key);
+            default -> null;
+        };
+    }
+
+    /**
+     * {@code itemsByTopic} entries for several topics from one
+     * {@code topic_id IN (...)} query. Topics without items map to an empty
+     * list.
+     */
+    public Map<Long, List<StudyItemView>> loadItemsByTopics(Collection<Long> topicIds) {
+        Map<Long, List<StudyItemView>> loaded = studyItemRepository.findByTopicIdInAndDeletedFalseOrderByIdAsc(topicIds)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getTopic().getId(), HashMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), StudyItemView::listOf)));
+        topicIds.forEach(topicId -> loaded.putIfAbsent(topicId, List.of()));
+        return loaded;
+    }
+
+    private Object loadCourses(Object key) {
+        if (SimpleKey.EMPTY.equals(key)) {
+            return courseRepository.findAll();
+        }
+        return key instanceof Long userId ? courseRepository.findByOwnerId(userId) : null;
+    }
+
+    private Object loadItems(Object key) {
+        if (key instanceof Long topicId) {
+            return StudyItemView.listOf(studyItemRepository.findByTopicIdAndDeletedFalse(topicId));
+        }
+        if (key instanceof String limited && limited.startsWith(LIMITED_ITEMS_PREFIX)) {
+            int separator = limited.indexOf(LIMITED_ITEMS_SEPARATOR);
+            if (separator < 0) {
+                return null;
+            }
+            long topicId = Long.parseLong(limited.substring(LIMITED_ITEMS_PREFIX.length(), separator));
+            int limit = Integer.parseInt(limited.substring(separator + LIMITED_ITEMS_SEPARATOR.length()));
+            if (limit <= 0) {
+                return List.of();
+            }
+            return StudyItemView.listOf(
+                    studyItemRepository.findByTopicIdAndDeletedFalse(topicId, PageRequest.of(0, limit)).getContent());
+        }
+        return null;
+    }
+}
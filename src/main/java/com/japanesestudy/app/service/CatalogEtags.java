@@ -0,0 +1,68 @@
+package com.japanesestudy.app.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicView;
+import com.japanesestudy.app.entity.Course;
+
+/**
+ * Strong ETags for catalog reads, built from the ids, {@code @Version}s and
+ * latest {@code updatedAt} of what is returned. Lists come from the catalog
+ * caches, so their tag is remembered per cached instance (by identity) and
+ * computed again only when the cache loads a new list; a conditional GET that
+ * ends in 304 touches neither the database nor the serializer.
+ */
+@Component
+public class CatalogEtags {
+
+    private final Cache<List<?>, String> listTags = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    public String forCourse(Course course) {
+        return tag('c', course.getId(), version(course.getVersion()), millis(course.getUpdatedAt()));
+    }
+
+    public String forTopics(List<TopicView> topics) {
+        return listTags.get(topics, key -> forList('t', topics, TopicView::id,
+                topic -> version(topic.version()), topic -> millis(topic.updatedAt())));
+    }
+
+    public String forItems(List<StudyItemView> items) {
+        return listTags.get(items, key -> forList('i', items, StudyItemView::id,
+                item -> version(item.version()), item -> millis(item.updatedAt())));
+    }
+
+    private static <T> String forList(char kind, List<T> rows, ToLongFunction<T> id, ToLongFunction<T> version,
+            ToLongFunction<T> updatedAt) {
+        long hash = rows.size();
+        long latest = 0;
+        for (T row : rows) {
+            hash = 31 * hash + id.applyAsLong(row);
+            hash = 31 * hash + version.applyAsLong(row);
+            latest = Math.max(latest, updatedAt.applyAsLong(row));
+        }
+        return tag(kind, rows.size(), hash, latest);
+    }
+
+    private static String tag(char kind, long a, long b, long c) {
+        return "\"" + kind + Long.toHexString(a) + '-' + Long.toHexString(b) + '-' + Long.toHexString(c) + "\"";
+    }
+
+    private static long version(Long version) {
+        return version != null ? version : 0;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+    }
+}
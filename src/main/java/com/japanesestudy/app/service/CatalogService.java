@@ -1,13 +1,29 @@
 package com.japanesestudy.app.service;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +33,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.japanesestudy.app.dto.catalog.CatalogDtos.CursorPage;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicView;
 import com.japanesestudy.app.entity.AccessLevel;
 import com.japanesestudy.app.entity.AuditLog;
 import com.japanesestudy.app.entity.Course;
@@ -31,9 +50,8 @@ import com.japanesestudy.app.repository.StudyItemRepository;
 import com.japanesestudy.app.repository.TopicRepository;
 import com.japanesestudy.app.repository.UserProgressRepository;
 import com.japanesestudy.app.repository.UserRepository;
-import com.japanesestudy.app.util.Utils.EvictAllCaches;
-import com.japanesestudy.app.util.Utils.EvictItemCaches;
-import com.japanesestudy.app.util.Utils.EvictTopicCaches;
+import com.japanesestudy.app.util.CsvReader;
+import com.japanesestudy.app.util.PageCursor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -41,6 +59,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class CatalogService {
 
+    private static final int MAX_BATCH_TOPICS = 100;
+
     private final CourseRepository courseRepository;
     private final CourseAccessRepository courseAccessRepository;
     private final TopicRepository topicRepository;
@@ -48,8 +68,12 @@ public class CatalogService {
     private final UserProgressRepository userProgressRepository;
     private final UserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final StudyItemSearchService searchService;
+    private final CatalogCacheLoader cacheLoader;
+    private final CacheManager cacheManager;
 
-    @Cacheable(cacheNames = "courses")
+    @Cacheable(cacheNames = "courses", sync = true)
     public List<Course> getAllCourses() {
         return courseRepository.findAll();
     }
@@ -58,12 +82,12 @@ public class CatalogService {
         return courseRepository.search(ownerId, level, tag, query);
     }
 
-    @Cacheable(cacheNames = "courses", condition = "#userId != null")
+    @Cacheable(cacheNames = "courses", condition = "#userId != null", sync = true)
     public List<Course> getVisibleCourses(Long userId) {
         return courseRepository.findByOwnerId(userId);
     }
 
-    @Cacheable(cacheNames = "courseById", key = "#courseId")
+    @Cacheable(cacheNames = "courseById", key = "#courseId", sync = true)
     public Optional<Course> getCourseById(long courseId) {
         return courseRepository.findById(courseId);
     }
@@ -79,9 +103,9 @@ public class CatalogService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = "topicsByCourse", key = "#courseId")
-    public List<Topic> getTopicsByCourse(long courseId) {
-        return topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId);
+    @Cacheable(cacheNames = "topicsByCourse", key = "#courseId", sync = true)
+    public List<TopicView> getTopicsByCourse(long courseId) {
+        return TopicView.listOf(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId));
     }
 
     @Transactional(readOnly = true)
@@ -90,10 +114,33 @@ public class CatalogService {
         return topicRepository.findByCourseIdAndDeletedFalse(courseId, pageable);
     }
 
+    /**
+     * Keyset-paged topics of a course in {@code (orderIndex, id)} order. Each
+     * page is one index seek however deep the client has scrolled; the total
+     * costs an extra count and is only run when {@code withTotal} is set.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TopicView> scrollTopicsByCourse(long courseId, String cursor, int size, boolean withTotal) {
+        long[] after = cursor == null || cursor.isBlank()
+                ? new long[] {Integer.MIN_VALUE, Long.MIN_VALUE}
+                : PageCursor.decode(cursor, 2);
+        if (after[0] < Integer.MIN_VALUE || after[0] > Integer.MAX_VALUE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        int limit = normalizeSize(size);
+        List<Topic> rows = topicRepository.findPageAfter(courseId, (int) after[0], after[1], Limit.of(limit + 1));
+        boolean more = rows.size() > limit;
+        List<Topic> page = more ? rows.subList(0, limit) : rows;
+        Topic last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String next = more ? PageCursor.encode(last.getOrderIndex(), last.getId()) : null;
+        Long total = withTotal ? topicRepository.countByCourseIdAndDeletedFalse(courseId) : null;
+        return new CursorPage<>(TopicView.listOf(page), next, total);
+    }
+
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = "itemsByTopic", key = "#topicId")
-    public List<StudyItem> getItemsByTopic(long topicId) {
-        return studyItemRepository.findByTopicIdAndDeletedFalse(topicId);
+    @Cacheable(cacheNames = "itemsByTopic", key = "#topicId", sync = true)
+    public List<StudyItemView> getItemsByTopic(long topicId) {
+        return StudyItemView.listOf(studyItemRepository.findByTopicIdAndDeletedFalse(topicId));
     }
 
     @Transactional(readOnly = true)
@@ -102,6 +149,58 @@ public class CatalogService {
         return studyItemRepository.findByTopicIdAndDeletedFalse(topicId, pageable);
     }
 
+    /**
+     * Items of several topics at once, keyed by topic id in request order.
+     * Hits come from {@code itemsByTopic} in one bulk lookup and all misses
+     * are loaded together with a single query, then cached.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<StudyItemView>> getItemsByTopics(Collection<Long> topicIds) {
+        Set<Long> keys = new LinkedHashSet<>(topicIds);
+        if (keys.size() > MAX_BATCH_TOPICS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_TOPICS + " topic ids per request");
+        }
+        Map<Long, List<StudyItemView>> found;
+        if (cacheManager.getCache("itemsByTopic") instanceof CaffeineCache cache) {
+            Map<Object, Object> cached = cache.getNativeCache().getAll(keys,
+                    missing -> cacheLoader.loadItemsByTopics(asTopicIds(missing)));
+            found = new HashMap<>();
+            cached.forEach((key, value) -> found.put((Long) key, asItemViews(value)));
+        } else {
+            found = cacheLoader.loadItemsByTopics(keys);
+        }
+        Map<Long, List<StudyItemView>> result = new LinkedHashMap<>();
+        keys.forEach(topicId -> result.put(topicId, found.getOrDefault(topicId, List.of())));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<StudyItemView> asItemViews(Object cached) {
+        return (List<StudyItemView>) cached;
+    }
+
+    private static List<Long> asTopicIds(Set<?> keys) {
+        return keys.stream().map(Long.class::cast).toList();
+    }
+
+    /**
+     * Keyset-paged items of a topic in id order; see
+     * {@link #scrollTopicsByCourse}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StudyItemView> scrollItemsByTopic(long topicId, String cursor, int size, boolean withTotal) {
+        long afterId = cursor == null || cursor.isBlank() ? Long.MIN_VALUE : PageCursor.decode(cursor, 1)[0];
+        int limit = normalizeSize(size);
+        List<StudyItem> rows = studyItemRepository.findByTopicIdAndDeletedFalseAndIdGreaterThanOrderByIdAsc(
+                topicId, afterId, Limit.of(limit + 1));
+        boolean more = rows.size() > limit;
+        List<StudyItem> page = more ? rows.subList(0, limit) : rows;
+        String next = more ? PageCursor.encode(page.get(page.size() - 1).getId()) : null;
+        Long total = withTotal ? studyItemRepository.countByTopicIdAndDeletedFalse(topicId) : null;
+        return new CursorPage<>(StudyItemView.listOf(page), next, total);
+    }
+
     public List<StudyItem> getItemsByTopicForUser(long topicId, Long userId) {
         List<StudyItem> items = studyItemRepository.findByTopicIdAndDeletedFalse(topicId);
         if (userId == null) {
@@ -121,39 +220,38 @@ public class CatalogService {
         return items;
     }
 
-    @Cacheable(cacheNames = "itemsByTopic", key = "'topic:' + #topicId + ':limit:' + #limit")
-    public List<StudyItem> getItemsByTopic(long topicId, int limit) {
+    @Cacheable(cacheNames = "itemsByTopic", key = "'topic:' + #topicId + ':limit:' + #limit", sync = true)
+    public List<StudyItemView> getItemsByTopic(long topicId, int limit) {
         if (limit <= 0) {
             return List.of();
         }
-        return studyItemRepository.findByTopicIdAndDeletedFalse(topicId, PageRequest.of(0, limit)).getContent();
+        return StudyItemView.listOf(
+                studyItemRepository.findByTopicIdAndDeletedFalse(topicId, PageRequest.of(0, limit)).getContent());
     }
 
     @Transactional
-    @EvictAllCaches
     public Course createCourse(Course course) {
         return createCourse(course, null);
     }
 
     @Transactional
-    @EvictAllCaches
     public Course createCourse(Course course, Long actorUserId) {
         Course saved = courseRepository.save(course);
+        cacheEvictor.courseChanged(saved);
         logAudit("Course", saved.getId(), "CREATE", actorUserId,
                 "title=\"" + (saved.getTitle() == null ? "" : saved.getTitle()) + "\"");
         return saved;
     }
 
     @Transactional
-    @EvictAllCaches
     public Course updateCourse(Course course) {
         return updateCourse(course, null);
     }
 
     @Transactional
-    @EvictAllCaches
     public Course updateCourse(Course course, Long actorUserId) {
         Course saved = courseRepository.save(course);
+        cacheEvictor.courseChanged(saved);
         logAudit("Course", saved.getId(), "UPDATE", actorUserId,
                 "title=\"" + (saved.getTitle() == null ? "" : saved.getTitle()) + "\" updatedAt=" + saved.getUpdatedAt());
         return saved;
@@ -220,15 +318,15 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictAllCaches
     public void deleteCourse(long courseId) {
         deleteCourse(courseId, null);
     }
 
     @Transactional
-    @EvictAllCaches
     public void deleteCourse(long courseId, Long actorUserId) {
         courseRepository.findById(courseId).ifPresent(course -> {
+            cacheEvictor.courseTreeChanged(course);
+            searchService.removeCourse(courseId);
             long topicCount = topicRepository.countByCourseIdAndDeletedFalse(courseId);
             // Remove dependent data to avoid FK conflicts
             userProgressRepository.hardDeleteByCourseId(courseId);
@@ -242,16 +340,15 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictTopicCaches
     public Topic createTopic(Topic topic) {
         return createTopic(topic, null);
     }
 
     @Transactional
-    @EvictTopicCaches
     public Topic createTopic(Topic topic, Long actorUserId) {
         validateTopic(topic);
         Topic saved = topicRepository.save(topic);
+        cacheEvictor.topicChanged(saved);
         logAudit("Topic", saved.getId(), "CREATE", actorUserId,
                 "courseId=" + (saved.getCourse() != null ? saved.getCourse().getId() : null)
                 + "; title=\"" + (saved.getTitle() == null ? "" : saved.getTitle()) + "\"");
@@ -259,44 +356,73 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictTopicCaches
     public BulkResult bulkUpsertTopics(long courseId, List<TopicUpsert> payloads, boolean dryRun, Long actorUserId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
         if (payloads == null || payloads.isEmpty()) {
             return new BulkResult(0, 0);
         }
+        List<TopicUpsert> rows = payloads.stream().filter(Objects::nonNull).toList();
+        rows.forEach(dto -> validateTopicUpsert(dto, dto.id() != null));
+
+        // Everything the rows refer to is read up front, so the query count
+        // does not depend on the payload size.
+        Map<Long, Topic> referenced = preload(rows.stream().map(TopicUpsert::id), topicRepository::findAllById,
+                Topic::getId, "Topic not found");
+        List<Topic> courseTopics = topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId);
+        Map<String, Topic> titles = new HashMap<>();
+        int maxOrderIndex = -1;
+        for (Topic topic : courseTopics) {
+            if (topic.getTitle() != null) {
+                titles.putIfAbsent(titleKey(topic.getTitle()), topic);
+            }
+            if (topic.getOrderIndex() != null) {
+                maxOrderIndex = Math.max(maxOrderIndex, topic.getOrderIndex());
+            }
+        }
+
         int created = 0;
         int updated = 0;
+        int nextOrderIndex = maxOrderIndex + 1;
         List<Topic> toSave = new ArrayList<>();
 
-        for (TopicUpsert dto : payloads) {
-            if (dto == null) {
-                continue;
-            }
+        for (TopicUpsert dto : rows) {
+            Topic topic;
             if (dto.id() != null) {
-                validateTopicUpsert(dto, true);
-                Topic topic = findTopicOrThrow(dto.id());
+                topic = referenced.get(dto.id());
                 assertTopicBelongsToCourse(topic, courseId);
+                String previousTitle = topic.getTitle();
                 applyTopicUpdates(topic, dto);
-                validateTopic(topic);
+                if (previousTitle != null) {
+                    titles.remove(titleKey(previousTitle), topic);
+                }
                 updated++;
-                toSave.add(topic);
             } else {
-                validateTopicUpsert(dto, false);
-                Topic topic = new Topic();
+                topic = new Topic();
                 topic.setCourse(course);
                 topic.setTitle(dto.title());
                 topic.setDescription(dto.description());
                 topic.setOrderIndex(dto.orderIndex());
-                validateTopic(topic);
                 created++;
-                toSave.add(topic);
             }
+            if (topic.getTitle() == null || topic.getTitle().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Topic title is required");
+            }
+            // Managed topics are the same instances in both preloaded lists.
+            Topic holder = titles.putIfAbsent(titleKey(topic.getTitle()), topic);
+            if (holder != null && holder != topic) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Topic title already exists in this course");
+            }
+            if (topic.getOrderIndex() == null) {
+                topic.setOrderIndex(nextOrderIndex++);
+            }
+            toSave.add(topic);
         }
 
         if (!dryRun && !toSave.isEmpty()) {
             topicRepository.saveAll(toSave);
+            cacheEvictor.topicsChanged(courseId);
+            searchService.reindexCourse(courseId);
             logAudit("Topic", null, "BULK_UPSERT", actorUserId,
                     "courseId=" + courseId + "; created=" + created + "; updated=" + updated);
         }
@@ -304,16 +430,20 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictTopicCaches
     public Topic updateTopic(Topic topic) {
         return updateTopic(topic, null);
     }
 
     @Transactional
-    @EvictTopicCaches
     public Topic updateTopic(Topic topic, Long actorUserId) {
         validateTopic(topic);
+        boolean reordered = topic.isOrderIndexChanged();
         Topic saved = topicRepository.save(topic);
+        cacheEvictor.topicChanged(saved);
+        if (reordered) {
+            // Typeahead ranks items by topic order.
+            searchService.reindexCourse(saved.getCourse().getId());
+        }
         logAudit("Topic", saved.getId(), "UPDATE", actorUserId,
                 "courseId=" + (saved.getCourse() != null ? saved.getCourse().getId() : null)
                 + "; title=\"" + (saved.getTitle() == null ? "" : saved.getTitle()) + "\"");
@@ -321,13 +451,11 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictTopicCaches
     public void deleteTopic(long topicId, boolean force) {
         deleteTopic(topicId, force, null);
     }
 
     @Transactional
-    @EvictTopicCaches
     public void deleteTopic(long topicId, boolean force, Long actorUserId) {
         Topic topic = findTopicOrThrow(topicId);
         long itemCount = studyItemRepository.countByTopicIdAndDeletedFalse(topicId);
@@ -338,6 +466,8 @@ public class CatalogService {
             itemsRemoved = true;
         }
         topicRepository.delete(topic);
+        cacheEvictor.topicDeleted(topic);
+        searchService.removeTopic(topicId);
         logAudit("Topic", topicId, "DELETE", actorUserId,
                 "courseId=" + (topic.getCourse() != null ? topic.getCourse().getId() : null)
                 + "; title=\"" + (topic.getTitle() == null ? "" : topic.getTitle()) + "\"; itemsRemoved=" + (itemsRemoved ? itemCount : 0)
@@ -358,16 +488,16 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictItemCaches
     public StudyItem createStudyItem(StudyItem item) {
         return createStudyItem(item, null);
     }
 
     @Transactional
-    @EvictItemCaches
     public StudyItem createStudyItem(StudyItem item, Long actorUserId) {
         validateStudyItemRequiredFields(item);
         StudyItem saved = studyItemRepository.save(item);
+        cacheEvictor.itemsChanged(saved.getTopic());
+        searchService.indexItem(saved);
         logAudit("StudyItem", saved.getId(), "CREATE", actorUserId,
                 "topicId=" + (saved.getTopic() != null ? saved.getTopic().getId() : null)
                 + "; primary=\"" + (saved.getPrimaryText() == null ? "" : saved.getPrimaryText()) + "\"");
@@ -375,7 +505,6 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictItemCaches
     public BulkResult bulkUpsertStudyItems(long topicId, List<StudyItemUpsert> payloads, boolean dryRun, Long actorUserId) {
         Topic topic = topicRepository.findByIdWithCourse(topicId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found"));
@@ -383,23 +512,23 @@ public class CatalogService {
             return new BulkResult(0, 0);
         }
 
+        List<StudyItemUpsert> rows = payloads.stream().filter(Objects::nonNull).toList();
+        rows.forEach(dto -> validateStudyItemUpsert(dto, dto.id() != null));
+        Map<Long, StudyItem> referenced = preload(rows.stream().map(StudyItemUpsert::id),
+                studyItemRepository::findAllById, StudyItem::getId, "Study item not found");
+
         int created = 0;
         int updated = 0;
         List<StudyItem> toSave = new ArrayList<>();
 
-        for (StudyItemUpsert dto : payloads) {
-            if (dto == null) {
-                continue;
-            }
+        for (StudyItemUpsert dto : rows) {
             if (dto.id() != null) {
-                validateStudyItemUpsert(dto, true);
-                StudyItem item = findStudyItemOrThrow(dto.id());
+                StudyItem item = referenced.get(dto.id());
                 assertItemBelongsToTopic(item, topicId);
                 applyStudyItemUpdates(item, dto);
                 updated++;
                 toSave.add(item);
             } else {
-                validateStudyItemUpsert(dto, false);
                 StudyItem item = new StudyItem();
                 item.setTopic(topic);
                 applyStudyItemUpdates(item, dto);
@@ -409,7 +538,8 @@ public class CatalogService {
         }
 
         if (!dryRun && !toSave.isEmpty()) {
-            studyItemRepository.saveAll(toSave);
+            studyItemRepository.saveAll(toSave).forEach(searchService::indexItem);
+            cacheEvictor.itemsChanged(topic);
             logAudit("StudyItem", null, "BULK_UPSERT", actorUserId,
                     "topicId=" + topicId + "; created=" + created + "; updated=" + updated);
         }
@@ -417,16 +547,16 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictItemCaches
     public StudyItem updateStudyItem(StudyItem item) {
         return updateStudyItem(item, null);
     }
 
     @Transactional
-    @EvictItemCaches
     public StudyItem updateStudyItem(StudyItem item, Long actorUserId) {
         validateStudyItemRequiredFields(item);
         StudyItem saved = studyItemRepository.save(item);
+        cacheEvictor.itemsChanged(saved.getTopic());
+        searchService.indexItem(saved);
         logAudit("StudyItem", saved.getId(), "UPDATE", actorUserId,
                 "topicId=" + (saved.getTopic() != null ? saved.getTopic().getId() : null)
                 + "; primary=\"" + (saved.getPrimaryText() == null ? "" : saved.getPrimaryText()) + "\"");
@@ -434,17 +564,19 @@ public class CatalogService {
     }
 
     @Transactional
-    @EvictItemCaches
     public void deleteStudyItem(long itemId) {
         deleteStudyItem(itemId, null);
     }
 
     @Transactional
-    @EvictItemCaches
     public void deleteStudyItem(long itemId, Long actorUserId) {
         StudyItem item = findStudyItemOrThrow(itemId);
         userProgressRepository.deleteByStudyItemId(itemId);
         studyItemRepository.softDeleteById(itemId);
+        searchService.removeItem(itemId);
+        if (item.getTopic() != null) {
+            cacheEvictor.itemsChanged(item.getTopic());
+        }
         logAudit("StudyItem", itemId, "DELETE", actorUserId,
                 "topicId=" + (item.getTopic() != null ? item.getTopic().getId() : null)
                 + "; primary=\"" + (item.getPrimaryText() == null ? "" : item.getPrimaryText()) + "\"");
@@ -464,6 +596,28 @@ public class CatalogService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found"));
     }
 
+    /**
+     * Loads every non-null id in one query, failing with 404 if any is
+     * missing.
+     */
+    private static <T> Map<Long, T> preload(Stream<Long> ids, Function<List<Long>, List<T>> loader,
+            Function<T, Long> idOf, String notFoundMessage) {
+        List<Long> wanted = ids.filter(Objects::nonNull).distinct().toList();
+        if (wanted.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, T> found = loader.apply(wanted).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        if (found.size() < wanted.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, notFoundMessage);
+        }
+        return found;
+    }
+
+    /** Topic titles are unique per course, ignoring case. */
+    static String titleKey(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
     private StudyItem findStudyItemOrThrow(long itemId) {
         return studyItemRepository.findById(itemId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Study item not found"));
@@ -493,23 +647,18 @@ public class CatalogService {
     }
 
     @Transactional
-    @CacheEvict(cacheNames = {"topicsByCourse"}, allEntries = true)
     public int reorderTopicsByTitle(long courseId) {
         List<Topic> topics = topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId);
-        topics.sort((a, b) -> {
-            java.util.regex.Matcher mA = java.util.regex.Pattern.compile("\\d+").matcher(a.getTitle() == null ? "" : a.getTitle());
-            java.util.regex.Matcher mB = java.util.regex.Pattern.compile("\\d+").matcher(b.getTitle() == null ? "" : b.getTitle());
-            int numA = mA.find() ? Integer.parseInt(mA.group()) : Integer.MAX_VALUE;
-            int numB = mB.find() ? Integer.parseInt(mB.group()) : Integer.MAX_VALUE;
-            if (numA != numB) {
-                return numA - numB;
-            }
-            return a.getTitle().compareToIgnoreCase(b.getTitle());
-        });
+        // Keys are kept in sync on save and backfilled at startup; derive one
+        // here only for a row that somehow still lacks it.
+        topics.stream().filter(topic -> topic.getSortKey() == null).forEach(Topic::refreshSortKey);
+        topics.sort(Comparator.comparing(Topic::getSortKey));
         for (int i = 0; i < topics.size(); i++) {
             topics.get(i).setOrderIndex(i);
         }
         topicRepository.saveAll(topics);
+        cacheEvictor.topicsChanged(courseId);
+        searchService.reindexCourse(courseId);
         return topics.size();
     }
 
@@ -559,53 +708,79 @@ public class CatalogService {
     }
 
     public List<TopicUpsert> parseTopicsCsv(String csv) {
-        if (csv == null || csv.isBlank()) {
-            return List.of();
+        return parseCsv(csv, "title", CatalogService::topicFromCsv);
+    }
+
+    public List<StudyItemUpsert> parseStudyItemsCsv(String csv) {
+        return parseCsv(csv, "primary", CatalogService::studyItemFromCsv);
+    }
+
+    /**
+     * Maps a {@code title,description,orderIndex} CSV row.
+     */
+    static TopicUpsert topicFromCsv(CsvReader.Row row) {
+        String title = trimmed(row.field(0));
+        if (title == null || title.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Topic title is required at row " + row.line());
         }
-        String[] lines = csv.split("\\r?\\n");
-        int start = (lines.length > 0 && lines[0].toLowerCase().contains("title")) ? 1 : 0;
-        List<TopicUpsert> payload = new ArrayList<>();
-        for (int i = start; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) {
-                continue;
-            }
-            String[] parts = line.split(",", -1);
-            if (parts.length < 1) {
-                continue;
-            }
-            String title = parts[0].trim();
-            String description = parts.length > 1 ? parts[1].trim() : null;
-            Integer orderIndex = (parts.length > 2) ? parseOptionalInt(parts[2], i + 1) : null;
-            payload.add(new TopicUpsert(null, title, description, orderIndex));
+        Integer orderIndex = parseOptionalInt(row.field(2), row.line());
+        if (orderIndex != null && orderIndex < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "orderIndex must be non-negative at row " + row.line());
         }
-        return payload;
+        return new TopicUpsert(null, title, trimmed(row.field(1)), orderIndex);
     }
 
-    public List<StudyItemUpsert> parseStudyItemsCsv(String csv) {
+    /**
+     * Maps a {@code primaryText,secondaryText,meaning} CSV row.
+     */
+    static StudyItemUpsert studyItemFromCsv(CsvReader.Row row) {
+        String primary = trimmed(row.field(0));
+        if (primary == null || primary.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "primaryText is required at row " + row.line());
+        }
+        return new StudyItemUpsert(null, primary, trimmed(row.field(1)), trimmed(row.field(2)), null);
+    }
+
+    /**
+     * Whether {@code row} is a header naming the given column rather than
+     * data.
+     */
+    static boolean isCsvHeader(CsvReader.Row row, String column) {
+        return String.join(",", row.fields()).toLowerCase(Locale.ROOT).contains(column);
+    }
+
+    private static <T> List<T> parseCsv(String csv, String headerColumn, Function<CsvReader.Row, T> mapper) {
         if (csv == null || csv.isBlank()) {
             return List.of();
         }
-        String[] lines = csv.split("\\r?\\n");
-        int start = (lines.length > 0 && lines[0].toLowerCase().contains("primary")) ? 1 : 0;
-        List<StudyItemUpsert> payload = new ArrayList<>();
-        for (int i = start; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) {
-                continue;
-            }
-            String[] parts = line.split(",", -1);
-            if (parts.length < 1) {
-                continue;
+        CsvReader reader = new CsvReader(new StringReader(csv));
+        List<T> payload = new ArrayList<>();
+        try {
+            boolean first = true;
+            for (CsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+                if (row.isBlank()) {
+                    continue;
+                }
+                if (first && isCsvHeader(row, headerColumn)) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                payload.add(mapper.apply(row));
             }
-            String primary = parts[0].trim();
-            String secondary = parts.length > 1 ? parts[1].trim() : null;
-            String meaning = parts.length > 2 ? parts[2].trim() : null;
-            payload.add(new StudyItemUpsert(null, primary, secondary, meaning, null));
+        } catch (CsvReader.MalformedRecordException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
         return payload;
     }
 
+    private static String trimmed(String value) {
+        return value != null ? value.trim() : null;
+    }
+
     private void validateTopicUpsert(TopicUpsert dto, boolean isUpdate) {
         if (!isUpdate || dto.title() != null) {
             if (dto.title() == null || dto.title().isBlank()) {
@@ -703,7 +878,7 @@ public class CatalogService {
         }
     }
 
-    private Integer parseOptionalInt(String raw, int rowNumber) {
+    private static Integer parseOptionalInt(String raw, long rowNumber) {
         if (raw == null) {
             return null;
         }
@@ -0,0 +1,151 @@
+package com.japanesestudy.app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.util.JsonMapConverter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a whole course as NDJSON: one {@code course} line, then each
+ * topic in course order followed by its items. Rows come from a single
+ * forward-only JDBC cursor with a bounded fetch size and are written as they
+ * arrive, so memory use does not depend on the size of the course and the
+ * first bytes go out before the query has finished.
+ */
+@Service
+@Slf4j
+public class CourseExportService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final int ZSTD_LEVEL = 3;
+
+    private static final String ROWS_SQL = "SELECT t.id AS topic_id, t.title, t.description, t.order_index, "
+            + "si.id AS item_id, si.primary_text, si.secondary_text, si.meaning, si.additional_data "
+            + "FROM topics t LEFT JOIN study_items si ON si.topic_id = t.id AND si.deleted = false "
+            + "WHERE t.course_id = ? AND t.deleted = false "
+            + "ORDER BY t.order_index, t.id, si.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final JsonMapConverter jsonMapConverter = new JsonMapConverter();
+
+    public CourseExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // PostgreSQL only honours the fetch size inside a transaction.
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams {@code course} to {@code out}, zstd-compressed when
+     * {@code zstd} is set, and closes it.
+     */
+    public void export(Course course, OutputStream out, boolean zstd) throws IOException {
+        long started = System.nanoTime();
+        OutputStream target = zstd ? new ZstdOutputStream(out, ZSTD_LEVEL) : out;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(target)) {
+            json.writeStartObject();
+            json.writeStringField("type", "course");
+            json.writeNumberField("id", course.getId());
+            json.writeStringField("title", course.getTitle());
+            json.writeStringField("description", course.getDescription());
+            json.writeStringField("level", course.getLevel());
+            json.writeEndObject();
+            json.writeRaw('\n');
+            json.flush();
+
+            RowWriter writer = new RowWriter(json);
+            try {
+                readOnlyTransaction.executeWithoutResult(
+                        status -> jdbcTemplate.query(ROWS_SQL, writer, course.getId()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            log.info("Exported course {} ({} topics, {} items) in {} ms", course.getId(), writer.topics,
+                    writer.items, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private final class RowWriter implements RowCallbackHandler {
+
+        private final JsonGenerator json;
+        private long currentTopic = -1;
+        private int topics;
+        private int items;
+
+        RowWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long topicId = rs.getLong("topic_id");
+                if (topicId != currentTopic) {
+                    currentTopic = topicId;
+                    topics++;
+                    writeTopic(rs, topicId);
+                }
+                long itemId = rs.getLong("item_id");
+                if (!rs.wasNull()) {
+                    items++;
+                    writeItem(rs, topicId, itemId);
+                }
+            } catch (IOException e) {
+                // Client went away; stop reading rows.
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeTopic(ResultSet rs, long topicId) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "topic");
+            json.writeNumberField("id", topicId);
+            json.writeStringField("title", rs.getString("title"));
+            json.writeStringField("description", rs.getString("description"));
+            int orderIndex = rs.getInt("order_index");
+            if (rs.wasNull()) {
+                json.writeNullField("orderIndex");
+            } else {
+                json.writeNumberField("orderIndex", orderIndex);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeItem(ResultSet rs, long topicId, long itemId) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "item");
+            json.writeNumberField("id", itemId);
+            json.writeNumberField("topicId", topicId);
+            json.writeStringField("primaryText", rs.getString("primary_text"));
+            json.writeStringField("secondaryText", rs.getString("secondary_text"));
+            json.writeStringField("meaning", rs.getString("meaning"));
+            json.writeFieldName("additionalData");
+            json.writeObject(jsonMapConverter.convertToEntityAttribute(rs.getString("additional_data")));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+    }
+}
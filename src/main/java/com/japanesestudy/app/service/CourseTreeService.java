@@ -0,0 +1,100 @@
+package com.japanesestudy.app.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.CourseTree;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicNode;
+import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.entity.Topic;
+import com.japanesestudy.app.repository.StudyItemRepository;
+import com.japanesestudy.app.repository.TopicRepository;
+import com.japanesestudy.app.util.SerializedBody;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Builds the full tree of a course (topics in order, each with its items)
+ * from two set-based queries and keeps it in the {@code courseTree} cache as
+ * ready-to-send JSON bytes plus a gzip copy. A hit is written out as is, with
+ * no Jackson work.
+ *
+ * <p>{@link CatalogCacheEvictor} drops the entry whenever the course, one of
+ * its topics or their items change, and bumps the course's tree generation.
+ * Each tree records the generation it was read at, so one built from rows
+ * read before a change is rebuilt even if it was stored after the eviction.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseTreeService {
+
+    private final TopicRepository topicRepository;
+    private final StudyItemRepository studyItemRepository;
+    private final CacheManager cacheManager;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Serialized tree of {@code course}, from the cache unless a change under
+     * the course has been recorded since the cached copy was read. Concurrent
+     * misses for one course build it once.
+     */
+    @Transactional(readOnly = true)
+    public SerializedTree getTree(Course course) {
+        long courseId = course.getId();
+        if (!(cacheManager.getCache("courseTree") instanceof CaffeineCache cache)) {
+            return serialize(build(course), cacheEvictor.treeGeneration(courseId));
+        }
+        while (true) {
+            // Read before the rows, so a change committed during the build makes the tree stale.
+            long generation = cacheEvictor.treeGeneration(courseId);
+            Object cached = cache.getNativeCache().get(courseId, id -> serialize(build(course), generation));
+            if (cached instanceof SerializedTree tree && tree.generation() >= generation) {
+                return tree;
+            }
+            cache.getNativeCache().asMap().remove(courseId, cached);
+        }
+    }
+
+    private CourseTree build(Course course) {
+        List<Topic> topics = topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(course.getId());
+        List<Long> topicIds = topics.stream().map(Topic::getId).toList();
+        Map<Long, List<StudyItemView>> itemsByTopic = topicIds.isEmpty()
+                ? Map.of()
+                : studyItemRepository.findByTopicIdInAndDeletedFalseOrderByIdAsc(topicIds).stream()
+                        .collect(Collectors.groupingBy(item -> item.getTopic().getId(),
+                                Collectors.mapping(StudyItemView::from, Collectors.toList())));
+        List<TopicNode> nodes = topics.stream()
+                .map(topic -> {
+                    List<StudyItemView> items = itemsByTopic.getOrDefault(topic.getId(), List.of());
+                    return new TopicNode(topic.getId(), topic.getTitle(), topic.getDescription(),
+                            topic.getOrderIndex(), topic.getVersion(), items.size(), items);
+                })
+                .toList();
+        return new CourseTree(course.getId(), course.getTitle(), course.getDescription(), course.getLevel(),
+                course.getVersion(), nodes);
+    }
+
+    private SerializedTree serialize(CourseTree tree, long generation) {
+        return new SerializedTree(generation, SerializedBody.of(objectMapper, tree, null));
+    }
+
+    /**
+     * A course tree ready to send, and the course's tree generation when its
+     * rows were read.
+     */
+    public record SerializedTree(long generation, SerializedBody body) {
+
+        public int weight() {
+            return body.weight();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.japanesestudy.app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.japanesestudy.app.service.CatalogService.BulkResult;
+import com.japanesestudy.app.service.CatalogService.StudyItemUpsert;
+import com.japanesestudy.app.service.CatalogService.TopicUpsert;
+import com.japanesestudy.app.util.CsvReader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams a CSV upload straight from the request body into the bulk upsert
+ * methods of {@link CatalogService}. Rows are parsed one at a time and
+ * written in chunks of {@link #CHUNK_SIZE}, each in its own transaction, so
+ * neither the file nor the parsed rows are ever held in memory at once.
+ *
+ * <p>A row that cannot be parsed or fails validation is reported with its
+ * line number and skipped. A chunk that fails validation or that the
+ * database rejects is rolled back and retried one row at a time, so only the
+ * offending rows are reported and the rest of the chunk is still written.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CsvBulkImporter {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final CatalogService catalogService;
+
+    public ImportResult importTopics(long courseId, InputStream body, boolean dryRun, Long actorUserId) {
+        if (!dryRun) {
+            return run(body, "title", CatalogService::topicFromCsv,
+                    chunk -> catalogService.bulkUpsertTopics(courseId, chunk, false, actorUserId));
+        }
+        // A dry run saves nothing, so a later chunk would not see the titles an
+        // earlier one would have created; check those here instead.
+        Set<String> pendingTitles = new HashSet<>();
+        return run(body, "title", CatalogService::topicFromCsv, chunk -> {
+            for (TopicUpsert row : chunk) {
+                if (pendingTitles.contains(CatalogService.titleKey(row.title()))) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Topic title already exists in this course");
+                }
+            }
+            BulkResult result = catalogService.bulkUpsertTopics(courseId, chunk, true, actorUserId);
+            chunk.forEach(row -> pendingTitles.add(CatalogService.titleKey(row.title())));
+            return result;
+        });
+    }
+
+    public ImportResult importStudyItems(long topicId, InputStream body, boolean dryRun, Long actorUserId) {
+        return run(body, "primary", CatalogService::studyItemFromCsv,
+                chunk -> catalogService.bulkUpsertStudyItems(topicId, chunk, dryRun, actorUserId));
+    }
+
+    private <T> ImportResult run(InputStream body, String headerColumn, Function<CsvReader.Row, T> mapper,
+            Function<List<T>, BulkResult> commit) {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+        CsvReader reader = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        boolean first = true;
+        while (true) {
+            CsvReader.Row row;
+            try {
+                row = reader.next();
+            } catch (CsvReader.MalformedRecordException e) {
+                progress.fail(e.getLine(), e.getMessage());
+                continue;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (row == null) {
+                break;
+            }
+            if (row.isBlank()) {
+                continue;
+            }
+            if (first) {
+                first = false;
+                if (CatalogService.isCsvHeader(row, headerColumn)) {
+                    continue;
+                }
+            }
+            try {
+                chunk.add(mapper.apply(row));
+                chunkLines.add(row.line());
+            } catch (ResponseStatusException e) {
+                progress.fail(row.line(), e.getReason());
+                continue;
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                commit(chunk, chunkLines, commit, progress);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            commit(chunk, chunkLines, commit, progress);
+        }
+        log.info("CSV import: {} created, {} updated, {} failed in {} ms", progress.created, progress.updated,
+                progress.failed, (System.nanoTime() - started) / 1_000_000);
+        return new ImportResult(progress.created, progress.updated, progress.failed, List.copyOf(progress.errors));
+    }
+
+    private static <T> void commit(List<T> chunk, List<Long> lines, Function<List<T>, BulkResult> commit,
+            Progress progress) {
+        String rejected = apply(List.copyOf(chunk), lines, commit, progress);
+        if (rejected != null && chunk.size() == 1) {
+            progress.fail(lines.get(0), rejected);
+        } else if (rejected != null) {
+            for (int i = 0; i < chunk.size(); i++) {
+                List<Long> line = List.of(lines.get(i));
+                String reason = apply(List.of(chunk.get(i)), line, commit, progress);
+                if (reason != null) {
+                    progress.fail(line.get(0), reason);
+                }
+            }
+        }
+        chunk.clear();
+        lines.clear();
+    }
+
+    /**
+     * Writes {@code rows} in one transaction. Returns why they were rejected,
+     * or {@code null} once they are counted as written.
+     */
+    private static <T> String apply(List<T> rows, List<Long> lines, Function<List<T>, BulkResult> commit,
+            Progress progress) {
+        try {
+            BulkResult result = commit.apply(rows);
+            progress.created += result.created();
+            progress.updated += result.updated();
+            return null;
+        } catch (ResponseStatusException e) {
+            return e.getReason();
+        } catch (DataAccessException e) {
+            log.warn("CSV import lines {}-{} rejected by the database", lines.get(0), lines.get(lines.size() - 1), e);
+            return "violates database constraints";
+        }
+    }
+
+    private static final class Progress {
+
+        private int created;
+        private int updated;
+        private int failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    /**
+     * Outcome of an import. {@code errors} lists at most the first
+     * {@value #MAX_REPORTED_ERRORS} failures; {@code failed} counts them all.
+     */
+    public record ImportResult(int created, int updated, int failed, List<RowError> errors) {
+
+    }
+
+    public record RowError(long line, String message) {
+
+    }
+}
@@ -0,0 +1,60 @@
+package com.japanesestudy.app.service;
+
+import org.springframework.stereotype.Component;
+
+import com.japanesestudy.app.config.ImportProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Byte budget for uploads that are queued or being imported. Every admitted
+ * upload reserves its size until its job finishes, so a few huge decks cannot
+ * be spooled and parsed at the same time. An upload larger than the whole
+ * budget is still admitted when nothing else is in flight.
+ */
+@Component
+@Slf4j
+public class ImportByteBudget {
+
+    private final long budgetBytes;
+    private long inFlightBytes;
+
+    public ImportByteBudget(ImportProperties properties, MeterRegistry meterRegistry) {
+        this.budgetBytes = properties.getMaxInFlightUploadSize().toBytes();
+        Gauge.builder("import.upload.bytes.in_flight", this, ImportByteBudget::getInFlightBytes)
+                .description("Bytes of uploads queued or being imported")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("import.upload.bytes.budget", this, b -> b.budgetBytes)
+                .description("Maximum bytes of uploads queued or being imported")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves {@code bytes} of the budget. Returns false when the upload does
+     * not fit.
+     */
+    public synchronized boolean tryReserve(long bytes) {
+        if (inFlightBytes > 0 && inFlightBytes + bytes > budgetBytes) {
+            log.debug("Upload of {} bytes does not fit ({} of {} in flight)", bytes, inFlightBytes, budgetBytes);
+            return false;
+        }
+        inFlightBytes += bytes;
+        return true;
+    }
+
+    public synchronized void release(long bytes) {
+        inFlightBytes = Math.max(0, inFlightBytes - bytes);
+    }
+
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+}
@@ -0,0 +1,185 @@
+package com.japanesestudy.app.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.japanesestudy.app.dto.importing.ImportJobStatus;
+import com.japanesestudy.app.model.ImportStage;
+
+import lombok.Getter;
+
+/**
+ * Mutable state of one asynchronous deck import. Written by the worker thread
+ * through the {@link ImportProgressListener} callbacks and read by status
+ * requests.
+ */
+public class ImportJob implements ImportProgressListener {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final Long ownerId;
+    @Getter
+    private final Instant createdAt = Instant.now();
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
+    private volatile ImportStage stage;
+    private volatile long stageTotal;
+    private volatile long stageDone;
+    private volatile long itemsTotal;
+    private volatile long itemsWritten;
+    private volatile long writeStartedNanos;
+    private volatile long writeElapsedNanos;
+    private volatile Instant finishedAt;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+    private volatile Future<?> future;
+
+    public ImportJob(String id, Long ownerId) {
+        this.id = id;
+        this.ownerId = ownerId;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void attach(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Moves a queued job to running. Returns false when it was cancelled
+     * first, in which case the worker must not start it.
+     */
+    boolean markRunning() {
+        return status.compareAndSet(Status.QUEUED, Status.RUNNING);
+    }
+
+    void complete(Map<String, Object> result) {
+        this.result = result;
+        finish(Status.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    void markCancelled() {
+        finish(Status.CANCELLED);
+    }
+
+    /**
+     * Requests cancellation. A queued job never starts; a running job stops at
+     * its next progress checkpoint and its write transaction is rolled back.
+     */
+    public boolean cancel() {
+        if (status.get().isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (status.compareAndSet(Status.QUEUED, Status.CANCELLED)) {
+            finishedAt = Instant.now();
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+        return true;
+    }
+
+    private void finish(Status finalStatus) {
+        if (stage == ImportStage.WRITE && writeStartedNanos > 0 && writeElapsedNanos == 0) {
+            writeElapsedNanos = System.nanoTime() - writeStartedNanos;
+        }
+        finishedAt = Instant.now();
+        status.set(finalStatus);
+    }
+
+    @Override
+    public void onStage(ImportStage stage, long total) {
+        this.stage = stage;
+        this.stageTotal = total;
+        this.stageDone = 0;
+        if (stage == ImportStage.WRITE) {
+            itemsTotal = total;
+            writeStartedNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void onProgress(long done) {
+        stageDone = done;
+    }
+
+    @Override
+    public void onItemsWritten(long itemsWritten) {
+        this.itemsWritten = itemsWritten;
+    }
+
+    @Override
+    public void checkCancelled() {
+        if (cancelRequested || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Import " + id + " was cancelled");
+        }
+    }
+
+    public ImportJobStatus toStatus() {
+        return new ImportJobStatus(id, status.get(), stage, percent(), itemsWritten, itemsTotal, itemsPerSecond(),
+                createdAt, finishedAt, result, error);
+    }
+
+    /**
+     * Overall completion, weighting extraction at 20%, parsing at 20% and
+     * writing at 60% of the job.
+     */
+    private int percent() {
+        if (status.get() == Status.COMPLETED) {
+            return 100;
+        }
+        ImportStage current = stage;
+        if (current == null) {
+            return 0;
+        }
+        long total = stageTotal;
+        // The note reader keeps reporting while items are written, so the
+        // write stage counts written items only.
+        long done = current == ImportStage.WRITE ? itemsWritten : stageDone;
+        double fraction = total > 0 ? Math.min(1.0, (double) done / total) : 0.0;
+        return switch (current) {
+            case EXTRACT -> (int) (fraction * 20);
+            case PARSE -> 20 + (int) (fraction * 20);
+            case WRITE -> 40 + (int) (fraction * 60);
+        };
+    }
+
+    private double itemsPerSecond() {
+        long started = writeStartedNanos;
+        if (started == 0) {
+            return 0.0;
+        }
+        long elapsed = writeElapsedNanos > 0 ? writeElapsedNanos : System.nanoTime() - started;
+        return elapsed > 0 ? itemsWritten * 1_000_000_000.0 / elapsed : 0.0;
+    }
+}
@@ -0,0 +1,215 @@
+package com.japanesestudy.app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.japanesestudy.app.config.ImportProperties;
+import com.japanesestudy.app.entity.User;
+import com.japanesestudy.app.exception.ImportCapacityException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs Anki deck imports on a bounded worker pool so uploads return a job id
+ * immediately instead of holding the HTTP request open for the whole import.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private final AnkiService ankiService;
+    private final ImportProperties properties;
+    private final ImportByteBudget byteBudget;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedByteBudget;
+
+    public ImportJobService(AnkiService ankiService, ImportProperties properties,
+            ImportByteBudget byteBudget, MeterRegistry meterRegistry) {
+        this.ankiService = ankiService;
+        this.properties = properties;
+        this.byteBudget = byteBudget;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getMaxConcurrentJobs(),
+                properties.getMaxConcurrentJobs(),
+                0L, TimeUnit.MILLISECONDS,
+                properties.getQueueCapacity() > 0
+                        ? new ArrayBlockingQueue<>(properties.getQueueCapacity())
+                        : new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "anki-import-" + threadCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("import.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Import jobs currently running")
+                .register(meterRegistry);
+        Gauge.builder("import.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Import jobs waiting for a worker")
+                .register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("import.jobs.rejected")
+                .description("Uploads turned away because the import capacity was spent")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.rejectedByteBudget = Counter.builder("import.jobs.rejected")
+                .description("Uploads turned away because the import capacity was spent")
+                .tag("reason", "byte_budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves the upload's size against the in-flight budget, spools it to a
+     * temp file and queues the import. The reservation and the spool file are
+     * released when the job finishes or is cancelled.
+     *
+     * @throws ImportCapacityException when the byte budget is spent or the
+     * job queue is full
+     */
+    public ImportJob submit(MultipartFile file, String displayName, User owner) throws IOException {
+        pruneFinishedJobs();
+        long size = file.getSize();
+        if (!byteBudget.tryReserve(size)) {
+            rejectedByteBudget.increment();
+            throw new ImportCapacityException("Too many large imports in progress, try again later",
+                    properties.getRetryAfter());
+        }
+
+        Path spool;
+        try {
+            spool = Files.createTempFile("anki-upload", ".apkg");
+        } catch (IOException | RuntimeException e) {
+            byteBudget.release(size);
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable cleanup = () -> {
+            if (released.compareAndSet(false, true)) {
+                byteBudget.release(size);
+                deleteSpool(spool);
+            }
+        };
+        try {
+            file.transferTo(spool);
+        } catch (IOException | RuntimeException e) {
+            cleanup.run();
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), owner != null ? owner.getId() : null);
+        FutureTask<Void> task = new FutureTask<>(() -> run(job, spool, displayName, owner, cleanup), null) {
+            @Override
+            protected void done() {
+                // A job cancelled before it started never reaches run()'s cleanup.
+                if (isCancelled()) {
+                    cleanup.run();
+                }
+            }
+        };
+        jobs.put(job.getId(), job);
+        job.attach(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            cleanup.run();
+            rejectedQueueFull.increment();
+            throw new ImportCapacityException("Too many imports in progress, try again later",
+                    properties.getRetryAfter());
+        }
+        log.info("Queued import job {} for {}", job.getId(), displayName);
+        return job;
+    }
+
+    public Optional<ImportJob> findJob(String jobId, Long ownerId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || (job.getOwnerId() != null && !job.getOwnerId().equals(ownerId))) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    public int getActiveJobCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedJobCount() {
+        return executor.getQueue().size();
+    }
+
+    public long getInFlightUploadBytes() {
+        return byteBudget.getInFlightBytes();
+    }
+
+    public long getUploadBudgetBytes() {
+        return byteBudget.getBudgetBytes();
+    }
+
+    private void run(ImportJob job, Path spool, String displayName, User owner, Runnable cleanup) {
+        try {
+            if (!job.markRunning()) {
+                log.info("Import job {} cancelled before it started", job.getId());
+                return;
+            }
+            try (InputStream upload = Files.newInputStream(spool)) {
+                job.complete(ankiService.importAnki(upload, Files.size(spool), displayName, owner, job));
+            }
+            log.info("Import job {} completed", job.getId());
+        } catch (CancellationException e) {
+            job.markCancelled();
+            log.info("Import job {} cancelled", job.getId());
+        } catch (IllegalArgumentException e) {
+            job.fail(e.getMessage());
+            log.warn("Import job {} rejected: {}", job.getId(), e.getMessage());
+        } catch (Exception e) {
+            job.fail("Import failed: " + e.getMessage());
+            log.error("Import job {} failed", job.getId(), e);
+        } finally {
+            cleanup.run();
+        }
+    }
+
+    private void deleteSpool(Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", spool, e.getMessage());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(properties.getJobRetention());
+        jobs.values().removeIf(job -> job.getStatus().isFinished()
+                && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
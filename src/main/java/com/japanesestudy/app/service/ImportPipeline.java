@@ -0,0 +1,200 @@
+package com.japanesestudy.app.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reader -> transform -> writer pipeline for deck imports. The reader runs on
+ * its own thread, the transform stage on {@code transformThreads} threads and
+ * the writer on the calling thread, so it stays inside the caller's
+ * transaction. Batches are numbered by the reader and handed to the writer in
+ * that order, whatever order the transform threads finish them in.
+ *
+ * <p>At most {@code maxBatchesInFlight} batches exist between the reader and
+ * the writer at any time, which bounds both queues and the reorder buffer.
+ */
+@Slf4j
+final class ImportPipeline<R, T> {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final int transformThreads;
+    private final int maxBatchesInFlight;
+    private final ImportProgressListener progress;
+
+    ImportPipeline(int transformThreads, int maxBatchesInFlight, ImportProgressListener progress) {
+        this.transformThreads = transformThreads;
+        this.maxBatchesInFlight = Math.max(maxBatchesInFlight, transformThreads);
+        this.progress = progress;
+    }
+
+    /**
+     * Produces batches for the transform stage by calling {@code emit}.
+     */
+    @FunctionalInterface
+    interface Reader<R> {
+
+        void read(Consumer<List<R>> emit) throws Exception;
+    }
+
+    /**
+     * Busy time of each stage. Transform time is summed over its threads;
+     * writer wait is how long the writer sat idle waiting for input.
+     */
+    record Timings(long readNanos, long transformNanos, long writeNanos, long writerWaitNanos, long totalNanos) {
+
+        Map<String, Long> toMillis() {
+            Map<String, Long> millis = new LinkedHashMap<>();
+            millis.put("read", TimeUnit.NANOSECONDS.toMillis(readNanos));
+            millis.put("transform", TimeUnit.NANOSECONDS.toMillis(transformNanos));
+            millis.put("write", TimeUnit.NANOSECONDS.toMillis(writeNanos));
+            millis.put("writerWait", TimeUnit.NANOSECONDS.toMillis(writerWaitNanos));
+            millis.put("total", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+            return millis;
+        }
+    }
+
+    private record Batch<E>(long seq, List<E> items) {
+
+        boolean isEnd() {
+            return items == null;
+        }
+    }
+
+    Timings run(Reader<R> reader, Function<List<R>, List<T>> transform, Consumer<List<T>> writer)
+            throws Exception {
+        long started = System.nanoTime();
+        BlockingQueue<Batch<R>> raw = new ArrayBlockingQueue<>(maxBatchesInFlight + transformThreads);
+        BlockingQueue<Batch<T>> transformed = new ArrayBlockingQueue<>(maxBatchesInFlight + transformThreads);
+        Semaphore inFlight = new Semaphore(maxBatchesInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong readBlockedNanos = new AtomicLong();
+        AtomicLong readNanos = new AtomicLong();
+        AtomicLong transformNanos = new AtomicLong();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        String prefix = Thread.currentThread().getName();
+        ExecutorService threads = Executors.newFixedThreadPool(transformThreads + 1, r -> {
+            Thread t = new Thread(r, prefix + "-pipeline-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            threads.execute(() -> {
+                long readStarted = System.nanoTime();
+                long[] seq = {0};
+                try {
+                    reader.read(items -> {
+                        long blocked = System.nanoTime();
+                        try {
+                            inFlight.acquire();
+                            raw.put(new Batch<>(seq[0]++, items));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException("Import reader interrupted", e);
+                        } finally {
+                            readBlockedNanos.addAndGet(System.nanoTime() - blocked);
+                        }
+                    });
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    readNanos.set(System.nanoTime() - readStarted - readBlockedNanos.get());
+                    for (int i = 0; i < transformThreads; i++) {
+                        raw.offer(new Batch<>(-1, null));
+                    }
+                }
+            });
+            for (int i = 0; i < transformThreads; i++) {
+                threads.execute(() -> {
+                    try {
+                        while (true) {
+                            Batch<R> batch = raw.take();
+                            if (batch.isEnd()) {
+                                break;
+                            }
+                            long transformStarted = System.nanoTime();
+                            List<T> out = transform.apply(batch.items());
+                            transformNanos.addAndGet(System.nanoTime() - transformStarted);
+                            transformed.put(new Batch<>(batch.seq(), out));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        transformed.offer(new Batch<>(-1, null));
+                    }
+                });
+            }
+
+            long writeNanos = 0;
+            long writerWaitNanos = 0;
+            Map<Long, List<T>> reorder = new HashMap<>();
+            long next = 0;
+            int finishedWorkers = 0;
+            while (finishedWorkers < transformThreads) {
+                long waitStarted = System.nanoTime();
+                Batch<T> batch = transformed.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                writerWaitNanos += System.nanoTime() - waitStarted;
+                rethrow(failure.get());
+                progress.checkCancelled();
+                if (batch == null) {
+                    continue;
+                }
+                if (batch.isEnd()) {
+                    finishedWorkers++;
+                    continue;
+                }
+                reorder.put(batch.seq(), batch.items());
+                List<T> items;
+                while ((items = reorder.remove(next)) != null) {
+                    long writeStarted = System.nanoTime();
+                    writer.accept(items);
+                    writeNanos += System.nanoTime() - writeStarted;
+                    inFlight.release();
+                    next++;
+                }
+            }
+            rethrow(failure.get());
+            if (!reorder.isEmpty()) {
+                throw new IllegalStateException("Import pipeline lost batch " + next);
+            }
+
+            Timings timings = new Timings(readNanos.get(), transformNanos.get(), writeNanos, writerWaitNanos,
+                    System.nanoTime() - started);
+            log.debug("Import pipeline timings (ms): {}", timings.toMillis());
+            return timings;
+        } finally {
+            threads.shutdownNow();
+            if (!threads.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Import pipeline threads did not stop within 10s");
+            }
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws Exception {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof Exception e) {
+            throw e;
+        }
+        throw (Error) failure;
+    }
+}
@@ -0,0 +1,37 @@
+package com.japanesestudy.app.service;
+
+import com.japanesestudy.app.model.ImportStage;
+
+/**
+ * Receives progress callbacks from {@link AnkiService} while a deck is being
+ * imported. All methods are optional.
+ */
+public interface ImportProgressListener {
+
+    ImportProgressListener NONE = new ImportProgressListener() {
+    };
+
+    /**
+     * Called when a stage starts. {@code total} is the amount of work in the
+     * stage (bytes, notes or items), or 0 when unknown.
+     */
+    default void onStage(ImportStage stage, long total) {
+    }
+
+    /**
+     * Work done in the current read stage. The note reader runs ahead of the
+     * writer, so this can still be called after the write stage has started.
+     */
+    default void onProgress(long done) {
+    }
+
+    default void onItemsWritten(long itemsWritten) {
+    }
+
+    /**
+     * Throws {@link java.util.concurrent.CancellationException} when the import
+     * should stop. Called between units of work.
+     */
+    default void checkCancelled() {
+    }
+}
@@ -0,0 +1,50 @@
+package com.japanesestudy.app.service;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.japanesestudy.app.util.SerializedBody;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Serialized bodies of catalog GET responses, keyed by the identity of the
+ * value a catalog cache returned. An entry lives exactly as long as that
+ * value: when {@link CatalogCacheEvictor} evicts it or Caffeine refreshes
+ * it, the old instance becomes unreachable and its bytes go with it, so this
+ * cache never needs invalidating on its own. Bounded by total byte size;
+ * statistics are exported as the {@code responseBodies} cache.
+ */
+@Component
+public class ResponseBodyCache {
+
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Object, SerializedBody> bodies = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumWeight(MAX_BYTES)
+            .weigher((Object value, SerializedBody body) -> body.weight())
+            .recordStats()
+            .build();
+
+    public ResponseBodyCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "responseBodies");
+    }
+
+    /**
+     * Bytes of {@code value} (a value returned by a catalog cache),
+     * serialized on first use.
+     */
+    public SerializedBody serialize(Object value, String etag) {
+        return bodies.get(value, key -> SerializedBody.of(objectMapper, value, etag));
+    }
+
+    public SerializedBody serialize(Object value) {
+        return serialize(value, null);
+    }
+}
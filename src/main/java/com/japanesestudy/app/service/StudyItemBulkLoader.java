@@ -0,0 +1,169 @@
+package com.japanesestudy.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.japanesestudy.app.entity.StudyItem;
+import com.japanesestudy.app.util.JsonMapConverter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inserts new study items straight through JDBC, bypassing entity state
+ * tracking. On PostgreSQL rows are streamed with {@code COPY ... FROM STDIN};
+ * other databases get a batched {@code INSERT}. Ids come from
+ * {@code study_items_seq} in the same 50-wide blocks the pooled optimizer
+ * uses, so they never collide with ids Hibernate hands out.
+ *
+ * <p>Must run inside the caller's transaction: the rows become visible with
+ * the rest of the import, and any pending topic inserts have to be flushed
+ * first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StudyItemBulkLoader {
+
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String COLUMNS = "id, primary_text, secondary_text, meaning, additional_data, topic_id, "
+            + "anki_guid, content_hash, deleted, created_at, updated_at, version";
+    private static final String COPY_SQL = "COPY study_items (" + COLUMNS + ") FROM STDIN";
+    private static final String INSERT_SQL = "INSERT INTO study_items (" + COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapConverter jsonMapConverter = new JsonMapConverter();
+
+    /**
+     * Assigns ids to {@code items} and inserts them. Every item must already
+     * have its topic set to a persisted topic.
+     */
+    public void insert(List<StudyItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conn -> {
+            boolean postgres = conn.isWrapperFor(PGConnection.class);
+            assignIds(items, postgres);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (postgres) {
+                copy(conn.unwrap(PGConnection.class).getCopyAPI(), items, now);
+            } else {
+                batchInsert(items, now);
+            }
+            return null;
+        });
+    }
+
+    private void assignIds(List<StudyItem> items, boolean postgres) {
+        int blocks = (items.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockTops = new ArrayList<>(blocks);
+        while (blockTops.size() < blocks) {
+            String sql = postgres
+                    ? "SELECT nextval('study_items_seq') FROM generate_series(1, ?)"
+                    : "SELECT NEXT VALUE FOR study_items_seq FROM SYSTEM_RANGE(1, ?)";
+            for (Long top : jdbcTemplate.queryForList(sql, Long.class, blocks - blockTops.size())) {
+                // A fresh sequence starts at 1; Hibernate treats that value specially, so skip it.
+                if (top >= ID_BLOCK_SIZE) {
+                    blockTops.add(top);
+                }
+            }
+        }
+        for (int i = 0; i < items.size(); i++) {
+            long top = blockTops.get(i / ID_BLOCK_SIZE);
+            items.get(i).setId(top - ID_BLOCK_SIZE + 1 + (i % ID_BLOCK_SIZE));
+        }
+    }
+
+    private void copy(CopyManager copyManager, List<StudyItem> items, Timestamp now) throws SQLException {
+        String timestamp = now.toString();
+        CopyIn copyIn = copyManager.copyIn(COPY_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS);
+            for (StudyItem item : items) {
+                buffer.append(item.getId()).append('\t');
+                appendText(buffer, item.getPrimaryText()).append('\t');
+                appendText(buffer, item.getSecondaryText()).append('\t');
+                appendText(buffer, item.getMeaning()).append('\t');
+                appendText(buffer, jsonMapConverter.convertToDatabaseColumn(item.getAdditionalData())).append('\t');
+                buffer.append(item.getTopic().getId()).append('\t');
+                appendText(buffer, item.getAnkiGuid()).append('\t');
+                appendText(buffer, item.getContentHash()).append('\t');
+                buffer.append(item.isDeleted() ? 't' : 'f').append('\t');
+                buffer.append(timestamp).append('\t');
+                buffer.append(timestamp).append('\t');
+                buffer.append('0').append('\n');
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            long rows = copyIn.endCopy();
+            log.debug("Copied {} study items", rows);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Appends a value in COPY text format: {@code \N} for null, with
+     * backslash and the row/column delimiters escaped.
+     */
+    private static StringBuilder appendText(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer.append("\\N");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+        return buffer;
+    }
+
+    private void batchInsert(List<StudyItem> items, Timestamp now) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getId());
+            ps.setString(2, item.getPrimaryText());
+            ps.setString(3, item.getSecondaryText());
+            ps.setString(4, item.getMeaning());
+            ps.setString(5, jsonMapConverter.convertToDatabaseColumn(item.getAdditionalData()));
+            ps.setLong(6, item.getTopic().getId());
+            ps.setString(7, item.getAnkiGuid());
+            ps.setString(8, item.getContentHash());
+            ps.setBoolean(9, item.isDeleted());
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+            ps.setLong(12, 0L);
+        });
+    }
+}
@@ -0,0 +1,192 @@
+package com.japanesestudy.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.japanesestudy.app.config.SearchProperties;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TypeaheadSuggestion;
+import com.japanesestudy.app.entity.StudyItem;
+import com.japanesestudy.app.repository.StudyItemRepository;
+import com.japanesestudy.app.util.KanaNormalizer;
+import com.japanesestudy.app.util.NgramIndex;
+import com.japanesestudy.app.util.ReadingTrie;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full-text search and typeahead over study items. Search is backed by an
+ * {@link NgramIndex} of {@code primaryText}, {@code secondaryText} and
+ * {@code meaning}; typeahead by a {@link ReadingTrie} of
+ * {@code secondaryText} and {@code primaryText}, ranked by topic order.
+ *
+ * <p>Both are built from the database once the application is ready and then
+ * kept current by {@link CatalogService} and {@link AnkiService}; changes
+ * made inside a transaction are applied after it commits.
+ */
+@Service
+@Slf4j
+public class StudyItemSearchService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private static final String ROWS_SQL = "SELECT si.id, si.topic_id, t.order_index, si.primary_text, "
+            + "si.secondary_text, si.meaning FROM study_items si JOIN topics t ON t.id = si.topic_id "
+            + "WHERE si.deleted = false";
+    private static final String COURSE_TOPICS_SQL = "SELECT id FROM topics WHERE course_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudyItemRepository studyItemRepository;
+    private final NgramIndex index = new NgramIndex();
+    private final ReadingTrie trie;
+    private final AtomicBoolean trieFull = new AtomicBoolean();
+
+    public StudyItemSearchService(JdbcTemplate jdbcTemplate, StudyItemRepository studyItemRepository,
+            SearchProperties searchProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.studyItemRepository = studyItemRepository;
+        this.trie = new ReadingTrie(searchProperties.getTypeaheadMaxNodes(),
+                searchProperties.getTypeaheadMaxResults());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        index.clear();
+        trie.clear();
+        trieFull.set(false);
+        jdbcTemplate.query(ROWS_SQL, indexRow());
+        log.info("Indexed {} study items for search and {} for typeahead ({} trie nodes) in {} ms",
+                index.size(), trie.size(), trie.nodeCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Suggestions for a partly typed reading in romaji or kana, or the start
+     * of the written form, best topic order first.
+     */
+    public List<TypeaheadSuggestion> typeahead(String input, int limit) {
+        return trie.complete(KanaNormalizer.typedPrefixes(input), limit).stream()
+                .map(entry -> new TypeaheadSuggestion(entry.id(), entry.group(), entry.primaryText(),
+                        entry.secondaryText()))
+                .toList();
+    }
+
+    /**
+     * Returns up to {@code limit} active items matching {@code query}, in id
+     * order.
+     */
+    public List<StudyItemView> search(String query, int limit) {
+        int capped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<Long> ids = index.search(query, capped);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, StudyItem> found = studyItemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(StudyItem::getId, Function.identity()));
+        List<StudyItemView> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            StudyItem item = found.get(id);
+            if (item != null) {
+                results.add(StudyItemView.from(item));
+            }
+        }
+        return results;
+    }
+
+    public void indexItem(StudyItem item) {
+        if (item.getId() == null || item.getTopic() == null || item.getTopic().getId() == null) {
+            return;
+        }
+        long id = item.getId();
+        long topicId = item.getTopic().getId();
+        Integer order = item.getTopic().getOrderIndex();
+        String primary = item.getPrimaryText();
+        String secondary = item.getSecondaryText();
+        String meaning = item.getMeaning();
+        afterCommit(() -> put(id, topicId, order != null ? order : Integer.MAX_VALUE, primary, secondary, meaning));
+    }
+
+    public void removeItem(long itemId) {
+        afterCommit(() -> {
+            index.remove(itemId);
+            trie.remove(itemId);
+        });
+    }
+
+    public void removeTopic(long topicId) {
+        afterCommit(() -> removeGroups(List.of(topicId)));
+    }
+
+    /**
+     * Drops a course's items. Topic ids are looked up now, while they still
+     * exist.
+     */
+    public void removeCourse(long courseId) {
+        List<Long> topicIds = courseTopicIds(courseId);
+        afterCommit(() -> removeGroups(topicIds));
+    }
+
+    /**
+     * Re-reads every active item of a course once the current transaction
+     * commits, e.g. after an import wrote them straight through JDBC or its
+     * topics were reordered.
+     */
+    public void reindexCourse(long courseId) {
+        afterCommit(() -> {
+            removeGroups(courseTopicIds(courseId));
+            jdbcTemplate.query(ROWS_SQL + " AND t.course_id = ?", indexRow(), courseId);
+        });
+    }
+
+    private List<Long> courseTopicIds(long courseId) {
+        return jdbcTemplate.queryForList(COURSE_TOPICS_SQL, Long.class, courseId);
+    }
+
+    private RowCallbackHandler indexRow() {
+        return rs -> {
+            int order = rs.getInt("order_index");
+            put(rs.getLong("id"), rs.getLong("topic_id"), rs.wasNull() ? Integer.MAX_VALUE : order,
+                    rs.getString("primary_text"), rs.getString("secondary_text"), rs.getString("meaning"));
+        };
+    }
+
+    private void put(long id, long topicId, int topicOrder, String primary, String secondary, String meaning) {
+        index.put(id, topicId, primary, secondary, meaning);
+        boolean added = trie.put(new ReadingTrie.Entry(id, topicId, topicOrder, primary, secondary),
+                secondary, primary);
+        if (!added && trieFull.compareAndSet(false, true)) {
+            log.warn("Typeahead trie reached its budget of {} nodes; further items are left out of typeahead",
+                    trie.nodeCount());
+        }
+    }
+
+    private void removeGroups(List<Long> topicIds) {
+        index.removeGroups(topicIds);
+        trie.removeGroups(topicIds);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package com.japanesestudy.app.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written replacement for the regex chain that used to clean Anki note
+ * fields. Strips {@code [sound:...]}, {@code [anki:play:...]} and HTML tags,
+ * decodes the handful of entities Anki emits and collapses whitespace.
+ *
+ * <p>Output matches the old chain
+ * ({@code [sound:] -> <img> -> [anki:play:] -> <tags> -> &nbsp; &lt; &gt; &amp; &quot; -> \s+ -> trim})
+ * for all well-formed markup. It only differs when an image tag and a bracket
+ * directive overlap each other, where the old sequential passes depended on
+ * replacement order.
+ */
+public final class AnkiTextSanitizer {
+
+    private static final char FIELD_DELIMITER = '\u001f';
+    private static final String SOUND_PREFIX = "[sound:";
+    private static final String PLAY_PREFIX = "[anki:play:";
+    private static final String IMG_PREFIX = "<img";
+
+    private AnkiTextSanitizer() {
+    }
+
+    public static String clean(String text) {
+        if (text == null) {
+            return "";
+        }
+        int length = text.length();
+        char[] buf = new char[length];
+        int n = stripDirectives(text, buf);
+        n = stripTags(buf, n);
+        n = decodeAndCollapse(buf, n);
+
+        int start = 0;
+        while (start < n && buf[start] <= ' ') {
+            start++;
+        }
+        int end = n;
+        while (end > start && buf[end - 1] <= ' ') {
+            end--;
+        }
+        if (start == 0 && end == length && sameChars(text, buf, length)) {
+            return text;
+        }
+        return new String(buf, start, end - start);
+    }
+
+    /**
+     * Splits raw note fields on the 0x1f separator with the same result as
+     * {@code String.split("\\x1f")}, including dropping trailing empty fields,
+     * without compiling a pattern per note.
+     */
+    public static String[] splitFields(String fields) {
+        int next = fields.indexOf(FIELD_DELIMITER);
+        if (next < 0) {
+            return new String[]{fields};
+        }
+        List<String> parts = new ArrayList<>();
+        int from = 0;
+        while (next >= 0) {
+            parts.add(fields.substring(from, next));
+            from = next + 1;
+            next = fields.indexOf(FIELD_DELIMITER, from);
+        }
+        parts.add(fields.substring(from));
+        int size = parts.size();
+        while (size > 0 && parts.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return parts.subList(0, size).toArray(new String[0]);
+    }
+
+    /**
+     * Copies {@code text} into {@code out} without {@code [sound:]},
+     * {@code <img>} and {@code [anki:play:]}. Returns the number of chars
+     * written. Images go in this pass, like in the old chain, so a stray
+     * {@code <} before an image is not mistaken for the start of a tag.
+     */
+    private static int stripDirectives(String text, char[] out) {
+        int length = text.length();
+        int n = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            int end = -1;
+            if (c == '[') {
+                end = directiveEnd(text, i, SOUND_PREFIX);
+                if (end < 0) {
+                    end = directiveEnd(text, i, PLAY_PREFIX);
+                }
+            } else if (c == '<' && text.startsWith(IMG_PREFIX, i)) {
+                // <img[^>]+>
+                int close = text.indexOf('>', i + IMG_PREFIX.length());
+                end = close > i + IMG_PREFIX.length() ? close + 1 : -1;
+            }
+            if (end >= 0) {
+                i = end;
+            } else {
+                out[n++] = c;
+                i++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Removes {@code <[^>]+>} tags from {@code buf} in place. Returns the new
+     * length.
+     */
+    private static int stripTags(char[] buf, int n) {
+        int w = 0;
+        int nextClose = -2;
+        int r = 0;
+        while (r < n) {
+            char c = buf[r];
+            if (c == '<') {
+                if (nextClose != -1 && nextClose <= r) {
+                    nextClose = indexOf(buf, n, '>', r + 1);
+                }
+                // a tag needs at least one char between the brackets
+                if (nextClose > r + 1) {
+                    r = nextClose + 1;
+                    continue;
+                }
+            }
+            buf[w++] = c;
+            r++;
+        }
+        return w;
+    }
+
+    private static int indexOf(char[] buf, int n, char target, int from) {
+        for (int k = from; k < n; k++) {
+            if (buf[k] == target) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index after {@code prefix[^\]]+]} starting at {@code i}, or
+     * -1 when there is no such directive.
+     */
+    private static int directiveEnd(String text, int i, String prefix) {
+        if (!text.startsWith(prefix, i)) {
+            return -1;
+        }
+        int bodyStart = i + prefix.length();
+        int close = text.indexOf(']', bodyStart);
+        return close > bodyStart ? close + 1 : -1;
+    }
+
+    /**
+     * Decodes entities and collapses whitespace runs to one space, in place.
+     * Returns the new length.
+     */
+    private static int decodeAndCollapse(char[] buf, int n) {
+        int w = 0;
+        int r = 0;
+        boolean inWhitespace = false;
+        while (r < n) {
+            char c = buf[r];
+            int consumed = 1;
+            if (c == '&') {
+                if (matches(buf, n, r, "&nbsp;")) {
+                    c = ' ';
+                    consumed = 6;
+                } else if (matches(buf, n, r, "&lt;")) {
+                    c = '<';
+                    consumed = 4;
+                } else if (matches(buf, n, r, "&gt;")) {
+                    c = '>';
+                    consumed = 4;
+                } else if (matches(buf, n, r, "&amp;")) {
+                    consumed = 5;
+                    // The old chain decoded &amp; before &quot;, so "&amp;quot;" became a quote.
+                    if (matches(buf, n, r + 5, "quot;")) {
+                        c = '"';
+                        consumed = 10;
+                    }
+                } else if (matches(buf, n, r, "&quot;")) {
+                    c = '"';
+                    consumed = 6;
+                }
+            }
+            if (isRegexWhitespace(c)) {
+                if (!inWhitespace) {
+                    buf[w++] = ' ';
+                    inWhitespace = true;
+                }
+            } else {
+                buf[w++] = c;
+                inWhitespace = false;
+            }
+            r += consumed;
+        }
+        return w;
+    }
+
+    private static boolean matches(char[] buf, int n, int at, String literal) {
+        int len = literal.length();
+        if (at + len > n) {
+            return false;
+        }
+        for (int k = 0; k < len; k++) {
+            if (buf[at + k] != literal.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same set as the regex {@code \s}: space, tab, newline, vertical tab,
+     * form feed and carriage return.
+     */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean sameChars(String text, char[] buf, int length) {
+        for (int k = 0; k < length; k++) {
+            if (text.charAt(k) != buf[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,225 @@
+package com.japanesestudy.app.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader. Records are read one at a time from a
+ * {@link Reader} through a small buffer, so memory use is bounded by the
+ * longest record rather than the input. Fields may be quoted; quoted fields
+ * may contain commas, line breaks and doubled quotes. CRLF, LF and CR all end
+ * a record, and a leading byte order mark is skipped.
+ *
+ * <p>A malformed record (text after a closing quote, an unterminated quote,
+ * or more than {@code maxRecordChars} characters) throws
+ * {@link MalformedRecordException}; the reader then continues with the next
+ * record, so callers can report the row and carry on.
+ */
+public final class CsvReader {
+
+    public static final int DEFAULT_MAX_RECORD_CHARS = 1 << 20;
+
+    private static final int EOF = -1;
+
+    private enum State { FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED }
+
+    /**
+     * One record and the physical line it starts on (1-based).
+     */
+    public record Row(long line, List<String> fields) {
+
+        public boolean isBlank() {
+            return fields.size() == 1 && fields.get(0).isBlank();
+        }
+
+        public String field(int index) {
+            return index < fields.size() ? fields.get(index) : null;
+        }
+    }
+
+    public static final class MalformedRecordException extends IllegalArgumentException {
+
+        private final long line;
+
+        MalformedRecordException(long line, String message) {
+            super(message + " at line " + line);
+            this.line = line;
+        }
+
+        public long getLine() {
+            return line;
+        }
+    }
+
+    private final Reader reader;
+    private final int maxRecordChars;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int pushedBack = EOF;
+    private long line = 1;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this(reader, DEFAULT_MAX_RECORD_CHARS);
+    }
+
+    public CsvReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * The next record, or null at the end of the input.
+     */
+    public Row next() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+        long startLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int recordChars = 0;
+        State state = State.FIELD_START;
+        while (true) {
+            if (++recordChars > maxRecordChars) {
+                skipRestOfLine(c, state);
+                throw new MalformedRecordException(startLine, "Record longer than " + maxRecordChars + " characters");
+            }
+            switch (state) {
+                case FIELD_START, UNQUOTED -> {
+                    if (c == '"' && state == State.FIELD_START) {
+                        state = State.QUOTED;
+                    } else if (c == ',') {
+                        fields.add(take(field));
+                        state = State.FIELD_START;
+                    } else if (c == EOF || isLineBreak(c)) {
+                        fields.add(take(field));
+                        endLine(c);
+                        return new Row(startLine, fields);
+                    } else {
+                        field.append((char) c);
+                        state = State.UNQUOTED;
+                    }
+                }
+                case QUOTED -> {
+                    if (c == '"') {
+                        state = State.QUOTE_IN_QUOTED;
+                    } else if (c == EOF) {
+                        throw new MalformedRecordException(startLine, "Unterminated quoted field");
+                    } else {
+                        if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                }
+                case QUOTE_IN_QUOTED -> {
+                    if (c == '"') {
+                        field.append('"');
+                        state = State.QUOTED;
+                    } else if (c == ',') {
+                        fields.add(take(field));
+                        state = State.FIELD_START;
+                    } else if (c == EOF || isLineBreak(c)) {
+                        fields.add(take(field));
+                        endLine(c);
+                        return new Row(startLine, fields);
+                    } else {
+                        skipRestOfLine(c, state);
+                        throw new MalformedRecordException(startLine, "Unexpected character after closing quote");
+                    }
+                }
+            }
+            c = read();
+        }
+    }
+
+    private static String take(StringBuilder field) {
+        String value = field.toString();
+        field.setLength(0);
+        return value;
+    }
+
+    private static boolean isLineBreak(int c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private void endLine(int c) throws IOException {
+        if (c == EOF) {
+            return;
+        }
+        if (c == '\r' && peek() == '\n') {
+            read();
+        }
+        line++;
+    }
+
+    /**
+     * Drops the rest of a broken record, up to the next line break outside
+     * of any quoting. {@code state} is the parser state {@code c} was read
+     * in, so a quoted field that is still open keeps its line breaks.
+     */
+    private void skipRestOfLine(int c, State state) throws IOException {
+        boolean quoted = state == State.QUOTED;
+        boolean closed = state == State.QUOTE_IN_QUOTED;
+        boolean fieldStart = state == State.FIELD_START;
+        while (c != EOF) {
+            boolean justClosed = false;
+            if (quoted) {
+                if (c == '"') {
+                    quoted = false;
+                    justClosed = true;
+                } else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                    line++;
+                }
+            } else if (c == '"' && (fieldStart || closed)) {
+                quoted = true;
+            } else if (isLineBreak(c)) {
+                break;
+            }
+            fieldStart = !quoted && c == ',';
+            closed = justClosed;
+            c = read();
+        }
+        endLine(c);
+    }
+
+    private int peek() throws IOException {
+        if (pushedBack == EOF) {
+            pushedBack = readBuffered();
+        }
+        return pushedBack;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != EOF) {
+            int c = pushedBack;
+            pushedBack = EOF;
+            return c;
+        }
+        int c = readBuffered();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = readBuffered();
+            }
+        }
+        return c;
+    }
+
+    private int readBuffered() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++];
+    }
+}
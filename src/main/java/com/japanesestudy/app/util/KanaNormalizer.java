@@ -0,0 +1,189 @@
+package com.japanesestudy.app.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Folds readings typed in romaji, hiragana, katakana or half-width kana onto
+ * one form: NFKC, lower case, katakana as hiragana, and (for input only)
+ * Hepburn or kunrei romaji as hiragana.
+ *
+ * <p>Typed input usually ends mid-syllable ("tab"), so
+ * {@link #typedPrefixes(String)} returns every kana prefix the input could be
+ * the start of ("たば", "たび", "たぶ", ...) rather than a single string.
+ */
+public final class KanaNormalizer {
+
+    private static final int MAX_ROMAJI = 3;
+    private static final Map<String, String> ROMAJI = new LinkedHashMap<>();
+
+    static {
+        String[][] table = {
+            {"a", "あ"}, {"i", "い"}, {"u", "う"}, {"e", "え"}, {"o", "お"},
+            {"ka", "か"}, {"ki", "き"}, {"ku", "く"}, {"ke", "け"}, {"ko", "こ"},
+            {"ga", "が"}, {"gi", "ぎ"}, {"gu", "ぐ"}, {"ge", "げ"}, {"go", "ご"},
+            {"sa", "さ"}, {"shi", "し"}, {"si", "し"}, {"su", "す"}, {"se", "せ"}, {"so", "そ"},
+            {"za", "ざ"}, {"ji", "じ"}, {"zi", "じ"}, {"zu", "ず"}, {"ze", "ぜ"}, {"zo", "ぞ"},
+            {"ta", "た"}, {"chi", "ち"}, {"ti", "ち"}, {"tsu", "つ"}, {"tu", "つ"}, {"te", "て"}, {"to", "と"},
+            {"da", "だ"}, {"di", "ぢ"}, {"du", "づ"}, {"de", "で"}, {"do", "ど"},
+            {"na", "な"}, {"ni", "に"}, {"nu", "ぬ"}, {"ne", "ね"}, {"no", "の"},
+            {"ha", "は"}, {"hi", "ひ"}, {"fu", "ふ"}, {"hu", "ふ"}, {"he", "へ"}, {"ho", "ほ"},
+            {"ba", "ば"}, {"bi", "び"}, {"bu", "ぶ"}, {"be", "べ"}, {"bo", "ぼ"},
+            {"pa", "ぱ"}, {"pi", "ぴ"}, {"pu", "ぷ"}, {"pe", "ぺ"}, {"po", "ぽ"},
+            {"ma", "ま"}, {"mi", "み"}, {"mu", "む"}, {"me", "め"}, {"mo", "も"},
+            {"ya", "や"}, {"yu", "ゆ"}, {"yo", "よ"},
+            {"ra", "ら"}, {"ri", "り"}, {"ru", "る"}, {"re", "れ"}, {"ro", "ろ"},
+            {"wa", "わ"}, {"wo", "を"}, {"nn", "ん"},
+            {"kya", "きゃ"}, {"kyu", "きゅ"}, {"kyo", "きょ"},
+            {"gya", "ぎゃ"}, {"gyu", "ぎゅ"}, {"gyo", "ぎょ"},
+            {"sha", "しゃ"}, {"shu", "しゅ"}, {"sho", "しょ"}, {"she", "しぇ"},
+            {"sya", "しゃ"}, {"syu", "しゅ"}, {"syo", "しょ"},
+            {"ja", "じゃ"}, {"ju", "じゅ"}, {"jo", "じょ"}, {"je", "じぇ"},
+            {"jya", "じゃ"}, {"jyu", "じゅ"}, {"jyo", "じょ"},
+            {"zya", "じゃ"}, {"zyu", "じゅ"}, {"zyo", "じょ"},
+            {"cha", "ちゃ"}, {"chu", "ちゅ"}, {"cho", "ちょ"}, {"che", "ちぇ"},
+            {"tya", "ちゃ"}, {"tyu", "ちゅ"}, {"tyo", "ちょ"},
+            {"nya", "にゃ"}, {"nyu", "にゅ"}, {"nyo", "にょ"},
+            {"hya", "ひゃ"}, {"hyu", "ひゅ"}, {"hyo", "ひょ"},
+            {"bya", "びゃ"}, {"byu", "びゅ"}, {"byo", "びょ"},
+            {"pya", "ぴゃ"}, {"pyu", "ぴゅ"}, {"pyo", "ぴょ"},
+            {"mya", "みゃ"}, {"myu", "みゅ"}, {"myo", "みょ"},
+            {"rya", "りゃ"}, {"ryu", "りゅ"}, {"ryo", "りょ"},
+            {"fa", "ふぁ"}, {"fi", "ふぃ"}, {"fe", "ふぇ"}, {"fo", "ふぉ"},
+            {"-", "ー"},
+        };
+        for (String[] pair : table) {
+            ROMAJI.put(pair[0], pair[1]);
+        }
+    }
+
+    private KanaNormalizer() {
+    }
+
+    /**
+     * NFKC, lower case and katakana folded to hiragana. Used for stored
+     * readings, which are never treated as romaji.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            out.append(toHiragana(normalized.charAt(i)));
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * Kana prefixes that typed {@code input} may stand for. Latin letters are
+     * read as romaji; a trailing incomplete syllable expands to every kana it
+     * can start. The plain folded input is included too, so readings stored
+     * in romaji or English still match.
+     */
+    public static List<String> typedPrefixes(String input) {
+        String folded = fold(input);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        Set<String> prefixes = new LinkedHashSet<>();
+        StringBuilder kana = new StringBuilder(folded.length());
+        int i = 0;
+        while (i < folded.length()) {
+            char c = folded.charAt(i);
+            if (!isRomaji(c)) {
+                kana.append(c);
+                i++;
+                continue;
+            }
+            if (c == 'n' && i + 1 < folded.length() && !startsSyllable(folded.charAt(i + 1))) {
+                // n before a consonant (or n') is ん; "nn" is ん unless a vowel follows ("konnichi")
+                boolean doubled = folded.charAt(i + 1) == 'n'
+                        && (i + 2 >= folded.length() || !startsSyllable(folded.charAt(i + 2)));
+                kana.append('ん');
+                i += doubled || folded.charAt(i + 1) == '\'' ? 2 : 1;
+                continue;
+            }
+            String syllable = null;
+            int length = Math.min(MAX_ROMAJI, folded.length() - i);
+            for (; length > 0; length--) {
+                syllable = ROMAJI.get(folded.substring(i, i + length));
+                if (syllable != null) {
+                    break;
+                }
+            }
+            if (syllable != null) {
+                kana.append(syllable);
+                i += length;
+            } else if (i + 1 < folded.length() && isConsonant(c) && c != 'n'
+                    && (folded.charAt(i + 1) == c || (c == 't' && folded.charAt(i + 1) == 'c'))) {
+                // doubled consonant, or Hepburn "tch"
+                kana.append('っ');
+                i++;
+            } else if (isPendingSyllable(folded.substring(i))) {
+                addCompletions(kana.toString(), folded.substring(i), prefixes);
+                break;
+            } else {
+                kana.append(c);
+                i++;
+            }
+        }
+        if (i >= folded.length()) {
+            prefixes.add(kana.toString());
+        }
+        prefixes.add(folded);
+        return new ArrayList<>(prefixes);
+    }
+
+    private static void addCompletions(String kana, String pending, Set<String> prefixes) {
+        if (pending.length() == 2 && pending.charAt(0) == pending.charAt(1) && isConsonant(pending.charAt(0))) {
+            // "tt" at the end: a doubled consonant whose syllable is not typed yet
+            prefixes.add(kana + 'っ');
+            return;
+        }
+        for (Map.Entry<String, String> entry : ROMAJI.entrySet()) {
+            if (entry.getKey().startsWith(pending)) {
+                prefixes.add(kana + entry.getValue());
+            }
+        }
+    }
+
+    private static boolean isPendingSyllable(String rest) {
+        if (rest.length() >= MAX_ROMAJI) {
+            return false;
+        }
+        if (rest.length() == 2 && rest.charAt(0) == rest.charAt(1) && isConsonant(rest.charAt(0))) {
+            return true;
+        }
+        for (String key : ROMAJI.keySet()) {
+            if (key.startsWith(rest)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRomaji(char c) {
+        return (c >= 'a' && c <= 'z') || c == '\'' || c == '-';
+    }
+
+    private static boolean startsSyllable(char c) {
+        return "aiueoy".indexOf(c) >= 0;
+    }
+
+    private static boolean isConsonant(char c) {
+        return c >= 'a' && c <= 'z' && "aiueo".indexOf(c) < 0;
+    }
+
+    private static char toHiragana(char c) {
+        // ァ (U+30A1) .. ヶ (U+30F6) sit 0x60 above their hiragana
+        return c >= 'ァ' && c <= 'ヶ' ? (char) (c - 0x60) : c;
+    }
+}
@@ -0,0 +1,89 @@
+package com.japanesestudy.app.util;
+
+/**
+ * Natural-order collation for topic titles. {@link #sortKey(String)} turns a
+ * title into a string whose plain {@code compareTo} order is the natural
+ * order, so a list is sorted by computing each key once instead of parsing
+ * numbers inside the comparator.
+ *
+ * <p>Titles are ordered by their first number, with titles without a number
+ * last, as before. Ties are broken by comparing the whole title
+ * case-insensitively with every digit run compared by value, so
+ * "Lesson 1-2" sorts before "Lesson 1-10". Any Unicode decimal digits count,
+ * including full-width ones as in "第１２課".
+ *
+ * <p>Keys contain control characters and must be compared by code unit
+ * (Java {@code String} order, or {@code COLLATE "C"} in PostgreSQL). They are
+ * cut at {@link #MAX_KEY_LENGTH} characters to fit the {@code sort_key}
+ * column; a title full of short numbers can expand past it, and such titles
+ * then tie on their first {@value #MAX_KEY_LENGTH} characters.
+ */
+public final class NaturalOrder {
+
+    public static final int MAX_KEY_LENGTH = 512;
+
+    private static final char NUMBER_MARK = '\u0001';
+    private static final char HAS_NUMBER = '0';
+    private static final char NO_NUMBER = '1';
+
+    private NaturalOrder() {
+    }
+
+    public static String sortKey(String title) {
+        String text = title == null ? "" : title;
+        StringBuilder key = new StringBuilder(text.length() + 16);
+
+        int first = firstDigit(text, 0);
+        if (first < 0) {
+            key.append(NO_NUMBER);
+        } else {
+            key.append(HAS_NUMBER);
+            appendNumber(key, text, first);
+        }
+
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c)) {
+                key.append(NUMBER_MARK);
+                i = appendNumber(key, text, i);
+            } else {
+                key.append(Character.toLowerCase(Character.toUpperCase(c)));
+                i++;
+            }
+        }
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key.toString();
+    }
+
+    private static int firstDigit(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the digit run starting at {@code start} as its length (two
+     * digits) followed by its ASCII digits without leading zeros, so shorter
+     * numbers sort first and equal lengths compare digit by digit. Returns the
+     * index after the run.
+     */
+    private static int appendNumber(StringBuilder key, String text, int start) {
+        int end = start;
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        int significant = start;
+        while (significant < end - 1 && Character.digit(text.charAt(significant), 10) == 0) {
+            significant++;
+        }
+        int length = Math.min(end - significant, 99);
+        key.append((char) ('0' + length / 10)).append((char) ('0' + length % 10));
+        for (int i = significant; i < significant + length; i++) {
+            key.append((char) ('0' + Character.digit(text.charAt(i), 10)));
+        }
+        return end;
+    }
+}
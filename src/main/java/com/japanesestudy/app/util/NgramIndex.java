@@ -0,0 +1,313 @@
+package com.japanesestudy.app.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index for short mixed Japanese/English texts.
+ *
+ * <p>Text is NFKC-normalized and lower-cased, then split into runs. Runs of
+ * kanji and kana are indexed as single characters and character bigrams; any
+ * other run of letters and digits is indexed as one word token. A query
+ * matches documents that contain all of its tokens: a one-character Japanese
+ * run is looked up as a single character (so 食 finds everything containing
+ * 食), longer runs by their bigrams and then confirmed as a substring of the
+ * document, English words as whole words.
+ *
+ * <p>Every document belongs to a group (its topic) so whole groups can be
+ * dropped at once. Safe for concurrent use; searches only take a read lock.
+ */
+public final class NgramIndex {
+
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Doc(long group, String text) {
+    }
+
+    /**
+     * Adds or replaces document {@code id}. Null fields are skipped.
+     */
+    public void put(long id, long group, String... fields) {
+        StringBuilder joined = new StringBuilder();
+        for (String field : fields) {
+            if (field != null) {
+                joined.append(field).append(FIELD_SEPARATOR);
+            }
+        }
+        String text = normalize(joined.toString());
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String run : runs(text)) {
+            addDocumentTokens(run, tokens);
+        }
+
+        lock.writeLock().lock();
+        try {
+            Doc previous = docs.put(id, new Doc(group, text));
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, key -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Doc previous = docs.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every document in any of {@code groups}.
+     */
+    public void removeGroups(Collection<Long> groups) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        Set<Long> targets = Set.copyOf(groups);
+        lock.writeLock().lock();
+        try {
+            var it = docs.entrySet().iterator();
+            while (it.hasNext()) {
+                var entry = it.next();
+                if (targets.contains(entry.getValue().group())) {
+                    it.remove();
+                    unindex(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ids of documents matching {@code query},
+     * in ascending id order.
+     */
+    public List<Long> search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        List<String> phrases = new ArrayList<>();
+        for (String run : runs(normalize(query))) {
+            if (isJapanese(run.codePointAt(0))) {
+                addQueryTokens(run, tokens);
+                if (run.codePointCount(0, run.length()) > 2) {
+                    phrases.add(run);
+                }
+            } else {
+                tokens.add(run);
+            }
+        }
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Postings list = postings.get(token);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings smallest = lists.get(0);
+            List<Long> matches = new ArrayList<>(Math.min(limit, smallest.size));
+            for (int i = 0; i < smallest.size && matches.size() < limit; i++) {
+                long id = smallest.ids[i];
+                if (inAll(id, lists) && containsAll(docs.get(id).text(), phrases)) {
+                    matches.add(id);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unindex(long id, Doc doc) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String run : runs(doc.text())) {
+            addDocumentTokens(run, tokens);
+        }
+        for (String token : tokens) {
+            Postings list = postings.get(token);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static boolean inAll(long id, List<Postings> lists) {
+        for (int k = 1; k < lists.size(); k++) {
+            if (!lists.get(k).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAll(String text, List<String> phrases) {
+        for (String phrase : phrases) {
+            if (!text.contains(phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits normalized text into maximal runs of Japanese characters and
+     * maximal runs of other letters and digits; everything else separates.
+     */
+    static List<String> runs(String text) {
+        List<String> runs = new ArrayList<>();
+        int start = -1;
+        boolean japanese = false;
+        int i = 0;
+        while (i <= text.length()) {
+            int cp = i < text.length() ? text.codePointAt(i) : -1;
+            boolean cpJapanese = cp >= 0 && isJapanese(cp);
+            boolean cpWord = cp >= 0 && !cpJapanese && Character.isLetterOrDigit(cp);
+            if (start >= 0 && (!(cpJapanese || cpWord) || cpJapanese != japanese)) {
+                runs.add(text.substring(start, i));
+                start = -1;
+            }
+            if (start < 0 && (cpJapanese || cpWord)) {
+                start = i;
+                japanese = cpJapanese;
+            }
+            i += cp >= 0 ? Character.charCount(cp) : 1;
+        }
+        return runs;
+    }
+
+    private static void addDocumentTokens(String run, Set<String> tokens) {
+        if (!isJapanese(run.codePointAt(0))) {
+            tokens.add(run);
+            return;
+        }
+        int[] cps = run.codePoints().toArray();
+        for (int k = 0; k < cps.length; k++) {
+            tokens.add(new String(cps, k, 1));
+            if (k + 1 < cps.length) {
+                tokens.add(new String(cps, k, 2));
+            }
+        }
+    }
+
+    private static void addQueryTokens(String run, Set<String> tokens) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1) {
+            tokens.add(run);
+            return;
+        }
+        for (int k = 0; k + 1 < cps.length; k++) {
+            tokens.add(new String(cps, k, 2));
+        }
+    }
+
+    private static boolean isJapanese(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                // prolonged sound mark and iteration marks are script COMMON
+                || cp == 'ー' || cp == '々' || cp == 'ゝ' || cp == 'ゞ' || cp == 'ヽ' || cp == 'ヾ';
+    }
+
+    /**
+     * Sorted, growable list of document ids.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insert(int at, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+}
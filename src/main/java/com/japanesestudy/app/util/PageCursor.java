@@ -0,0 +1,50 @@
+package com.japanesestudy.app.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Opaque keyset cursors: the sort key of the last row a client has seen,
+ * encoded as URL-safe base64 so clients treat it as a token rather than
+ * something to construct.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(long... keys) {
+        StringBuilder raw = new StringBuilder();
+        for (long key : keys) {
+            if (!raw.isEmpty()) {
+                raw.append(':');
+            }
+            raw.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor made by {@link #encode} with {@code arity} keys.
+     * Throws 400 for anything else.
+     */
+    public static long[] decode(String cursor, int arity) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", -1);
+            if (parts.length != arity) {
+                throw new IllegalArgumentException();
+            }
+            long[] keys = new long[arity];
+            for (int i = 0; i < arity; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
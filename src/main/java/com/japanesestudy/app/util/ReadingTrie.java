@@ -0,0 +1,344 @@
+package com.japanesestudy.app.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over item readings for typeahead. Keys are folded with
+ * {@link KanaNormalizer#fold(String)}; each node keeps its children in a
+ * sorted {@code char[]} and nodes near the root also keep the best
+ * {@code topK} entries of their subtree, so a completion is a walk down the
+ * prefix plus a copy of that list. Deeper subtrees are small and are
+ * collected on demand.
+ *
+ * <p>Entries rank by {@link Entry#rank()} (topic order), then id. The trie
+ * never grows past {@code maxNodes} nodes: {@link #put} refuses entries that
+ * would need more, so memory stays within a fixed budget. Safe for
+ * concurrent use; completions only take a read lock.
+ */
+public final class ReadingTrie {
+
+    /**
+     * Nodes shallower than this keep a cached top-k list.
+     */
+    private static final int CACHED_DEPTH = 4;
+    private static final char[] NO_LABELS = {};
+    private static final Node[] NO_CHILDREN = {};
+    private static final Entry[] NO_ENTRIES = {};
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingInt(Entry::rank).thenComparingLong(Entry::id);
+
+    public record Entry(long id, long group, int rank, String primaryText, String secondaryText) {
+    }
+
+    private record Indexed(Entry entry, List<String> keys) {
+    }
+
+    private final int maxNodes;
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<Long, Indexed> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int nodeCount = 1;
+
+    public ReadingTrie(int maxNodes, int topK) {
+        this.maxNodes = maxNodes;
+        this.topK = topK;
+        root.top = NO_ENTRIES;
+    }
+
+    /**
+     * Adds or replaces {@code entry} under each of {@code readings}. Returns
+     * false, leaving the entry out, when its keys would not fit in the node
+     * budget.
+     */
+    public boolean put(Entry entry, String... readings) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String reading : readings) {
+            String key = KanaNormalizer.fold(reading);
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(entry.id());
+            if (keys.isEmpty()) {
+                return true;
+            }
+            if (nodeCount + missingNodes(keys) > maxNodes) {
+                return false;
+            }
+            for (String key : keys) {
+                insert(key, entry);
+            }
+            entries.put(entry.id(), new Indexed(entry, List.copyOf(keys)));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry in any of {@code groups}.
+     */
+    public void removeGroups(Collection<Long> groups) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        Set<Long> targets = Set.copyOf(groups);
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            entries.forEach((id, indexed) -> {
+                if (targets.contains(indexed.entry().group())) {
+                    ids.add(id);
+                }
+            });
+            ids.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.labels = NO_LABELS;
+            root.children = NO_CHILDREN;
+            root.terminals = NO_ENTRIES;
+            root.top = NO_ENTRIES;
+            entries.clear();
+            nodeCount = 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} entries (at most {@code topK}) whose key starts with
+     * any of {@code prefixes}, each entry once.
+     */
+    public List<Entry> complete(Collection<String> prefixes, int limit) {
+        int capped = Math.min(limit, topK);
+        if (capped <= 0) {
+            return List.of();
+        }
+        List<Entry> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String prefix : prefixes) {
+                Node node = find(prefix);
+                if (node != null) {
+                    candidates.addAll(Arrays.asList(best(node)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rank(candidates, capped);
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private int missingNodes(Set<String> keys) {
+        int missing = 0;
+        for (String key : keys) {
+            Node node = root;
+            int i = 0;
+            while (i < key.length() && (node = node.child(key.charAt(i))) != null) {
+                i++;
+            }
+            missing += key.length() - i;
+        }
+        return missing;
+    }
+
+    private void insert(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = path[i].child(key.charAt(i));
+            if (child == null) {
+                child = path[i].addChild(key.charAt(i));
+                if (i + 1 < CACHED_DEPTH) {
+                    child.top = NO_ENTRIES;
+                }
+                nodeCount++;
+            }
+            path[i + 1] = child;
+        }
+        Node leaf = path[key.length()];
+        leaf.terminals = Arrays.copyOf(leaf.terminals, leaf.terminals.length + 1);
+        leaf.terminals[leaf.terminals.length - 1] = entry;
+        // The new entry can only push others out of a cached top list.
+        for (int depth = Math.min(key.length(), CACHED_DEPTH - 1); depth >= 0; depth--) {
+            Node node = path[depth];
+            List<Entry> candidates = new ArrayList<>(Arrays.asList(node.top));
+            candidates.add(entry);
+            node.top = rank(candidates, topK).toArray(Entry[]::new);
+        }
+    }
+
+    private void removeLocked(long id) {
+        Indexed indexed = entries.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        for (String key : indexed.keys()) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length() && path[i] != null; i++) {
+                path[i + 1] = path[i].child(key.charAt(i));
+            }
+            Node leaf = path[key.length()];
+            if (leaf == null) {
+                continue;
+            }
+            leaf.terminals = Arrays.stream(leaf.terminals).filter(e -> e.id() != id).toArray(Entry[]::new);
+            int depth = key.length();
+            // Prune nodes left with nothing under them.
+            while (depth > 0 && path[depth].terminals.length == 0 && path[depth].labels.length == 0) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+                nodeCount--;
+                depth--;
+            }
+            refreshContaining(path, depth, id);
+        }
+    }
+
+    /**
+     * Recomputes the cached top lists on {@code path[0..deepest]} that still
+     * list {@code id}, bottom up.
+     */
+    private void refreshContaining(Node[] path, int deepest, long id) {
+        for (int depth = Math.min(deepest, CACHED_DEPTH - 1); depth >= 0; depth--) {
+            Node node = path[depth];
+            if (Arrays.stream(node.top).noneMatch(e -> e.id() == id)) {
+                continue;
+            }
+            List<Entry> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(best(child)));
+            }
+            node.top = rank(candidates, topK).toArray(Entry[]::new);
+        }
+    }
+
+    private Entry[] best(Node node) {
+        if (node.top != null) {
+            return node.top;
+        }
+        List<Entry> all = new ArrayList<>();
+        collect(node, all);
+        return rank(all, topK).toArray(Entry[]::new);
+    }
+
+    private static void collect(Node node, List<Entry> out) {
+        out.addAll(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            collect(child, out);
+        }
+    }
+
+    private static List<Entry> rank(List<Entry> candidates, int limit) {
+        candidates.sort(ORDER);
+        List<Entry> ranked = new ArrayList<>(Math.min(limit, candidates.size()));
+        Set<Long> seen = new HashSet<>();
+        for (Entry entry : candidates) {
+            if (ranked.size() == limit) {
+                break;
+            }
+            if (seen.add(entry.id())) {
+                ranked.add(entry);
+            }
+        }
+        return ranked;
+    }
+
+    private static final class Node {
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] terminals = NO_ENTRIES;
+        private Entry[] top;
+
+        Node child(char label) {
+            int at = Arrays.binarySearch(labels, label);
+            return at >= 0 ? children[at] : null;
+        }
+
+        Node addChild(char label) {
+            int at = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            Node child = new Node();
+            newLabels[at] = label;
+            newChildren[at] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int at = Arrays.binarySearch(labels, label);
+            if (at < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(labels, at + 1, newLabels, at, labels.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.japanesestudy.app.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A JSON response body serialized once, in identity and gzip encodings,
+ * with a strong ETag for each. {@code gzip} is null for bodies too small to
+ * be worth compressing.
+ */
+public record SerializedBody(byte[] identity, byte[] gzip, String etag) {
+
+    /**
+     * Same threshold as {@code server.compression.min-response-size}.
+     */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    /**
+     * Serializes {@code value}. Without an {@code etag} one is derived from
+     * the bytes.
+     */
+    public static SerializedBody of(ObjectMapper objectMapper, Object value, String etag) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response body", e);
+        }
+        if (etag == null) {
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(json.length) + "\"";
+        }
+        return new SerializedBody(json, json.length >= GZIP_MIN_BYTES ? gzip(json) : null, etag);
+    }
+
+    public int weight() {
+        return identity.length + (gzip != null ? gzip.length : 0);
+    }
+
+    /**
+     * The gzip copy is a different representation, so it needs its own
+     * strong ETag.
+     */
+    public String gzipEtag() {
+        return gzipEtagOf(etag);
+    }
+
+    /**
+     * The gzip ETag a body tagged {@code etag} will have, known before it is
+     * serialized.
+     */
+    public static String gzipEtagOf(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
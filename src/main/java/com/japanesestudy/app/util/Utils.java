@@ -1,19 +1,18 @@
 package com.japanesestudy.app.util;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.lang.annotation.ElementType;
-import java.lang.annotation.Retention;
-import java.lang.annotation.RetentionPolicy;
-import java.lang.annotation.Target;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Supplier;
 
 /**
- * Consolidated utilities for controllers and cache management.
+ * Consolidated utilities for controllers.
  */
 public class Utils {
 
@@ -41,6 +40,96 @@ public class Utils {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * Writes pre-serialized JSON, choosing the gzip copy when the client
+     * accepts it. Setting Content-Encoding here keeps the server from
+     * compressing the body a second time.
+     */
+    public static ResponseEntity<byte[]> serialized(SerializedBody body, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzip() != null && acceptsEncoding(acceptEncoding, "gzip")) {
+            return response.eTag(body.gzipEtag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.eTag(body.etag()).body(body.identity());
+    }
+
+    /**
+     * Like {@link #serialized(SerializedBody, String)}, but answers a
+     * conditional GET for either representation of {@code etag} with a 304
+     * before {@code body} is asked for, so a revalidation never serializes.
+     * Returns null when the 304 has been written.
+     */
+    public static ResponseEntity<byte[]> serialized(WebRequest request, String etag, Supplier<SerializedBody> body,
+            String acceptEncoding) {
+        String matched = matchingEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag,
+                SerializedBody.gzipEtagOf(etag));
+        if (matched != null && request.checkNotModified(matched)) {
+            return null;
+        }
+        return serialized(body.get(), acceptEncoding);
+    }
+
+    /**
+     * The one of {@code candidates} that an {@code If-None-Match} header
+     * lists (weak comparison, as for GET), or null.
+     */
+    private static String matchingEtag(String ifNoneMatch, String... candidates) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String entry : ifNoneMatch.split(",")) {
+            String tag = entry.trim();
+            if (tag.equals("*")) {
+                return candidates[0];
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            for (String candidate : candidates) {
+                if (candidate.equals(tag)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows {@code coding}: listed
+     * by name, or through {@code *}, with a q-value above zero. The named
+     * entry wins over {@code *}, so {@code gzip;q=0, *} refuses gzip.
+     */
+    public static boolean acceptsEncoding(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double named = -1;
+        double wildcard = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals(coding)) {
+                named = Math.max(named, q);
+            } else if (name.equals("*")) {
+                wildcard = Math.max(wildcard, q);
+            }
+        }
+        return (named >= 0 ? named : wildcard) > 0;
+    }
+
     public static ResponseEntity<Map<String, String>> message(String msg) {
         return ResponseEntity.ok(Map.of("message", msg));
     }
@@ -52,21 +141,4 @@ public class Utils {
     public static ResponseEntity<Map<String, String>> unauthorized(String msg) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", msg));
     }
-
-    // === Cache Eviction Annotations ===
-
-    @Target(ElementType.METHOD)
-    @Retention(RetentionPolicy.RUNTIME)
-    @CacheEvict(cacheNames = {"courses", "courseById", "topicsByCourse", "itemsByTopic"}, allEntries = true)
-    public @interface EvictAllCaches {}
-
-    @Target(ElementType.METHOD)
-    @Retention(RetentionPolicy.RUNTIME)
-    @CacheEvict(cacheNames = {"topicsByCourse", "itemsByTopic"}, allEntries = true)
-    public @interface EvictTopicCaches {}
-
-    @Target(ElementType.METHOD)
-    @Retention(RetentionPolicy.RUNTIME)
-    @CacheEvict(cacheNames = {"itemsByTopic"}, allEntries = true)
-    public @interface EvictItemCaches {}
 }
@@ -0,0 +1,3 @@
+ALTER TABLE study_items ADD COLUMN IF NOT EXISTS anki_guid VARCHAR(64);
+ALTER TABLE study_items ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_study_items_anki_guid ON study_items (anki_guid);
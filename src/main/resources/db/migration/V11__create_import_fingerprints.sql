@@ -0,0 +1,10 @@
+CREATE SEQUENCE IF NOT EXISTS import_fingerprints_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS import_fingerprints (
+    id BIGINT PRIMARY KEY,
+    owner_id BIGINT NULL,
+    sha256 VARCHAR(64) NOT NULL,
+    course_id BIGINT NOT NULL,
+    imported_at TIMESTAMP WITHOUT TIME ZONE NULL,
+    CONSTRAINT uk_import_fingerprints_owner_sha256 UNIQUE (owner_id, sha256)
+);
+CREATE INDEX IF NOT EXISTS idx_import_fingerprints_course ON import_fingerprints (course_id);
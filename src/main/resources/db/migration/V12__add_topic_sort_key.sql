@@ -0,0 +1,3 @@
+-- Natural-order sort key derived from the title (NaturalOrder.sortKey).
+-- Existing rows are backfilled at startup by DatabaseInitializer.
+ALTER TABLE topics ADD COLUMN IF NOT EXISTS sort_key VARCHAR(512);
@@ -0,0 +1,18 @@
+-- Keyset scrolling seeks on (course_id, order_index) and (topic_id, id).
+-- Topics without an order index would fall outside the seek, so give them the
+-- next free index in their course, in id order, and forbid NULLs from now on.
+-- DatabaseInitializer applies the same backfill at startup.
+UPDATE topics
+SET order_index = numbered.next_index
+FROM (
+    SELECT t.id,
+           (SELECT COALESCE(MAX(m.order_index), -1) FROM topics m WHERE m.course_id = t.course_id)
+               + ROW_NUMBER() OVER (PARTITION BY t.course_id ORDER BY t.id) AS next_index
+    FROM topics t
+    WHERE t.order_index IS NULL
+) numbered
+WHERE topics.id = numbered.id;
+
+ALTER TABLE topics ALTER COLUMN order_index SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_study_items_topic_id_id ON study_items(topic_id, id);
@@ -0,0 +1,16 @@
+-- Sequence-backed ids with a pooled optimizer (allocationSize = 50).
+-- IDENTITY ids disable Hibernate JDBC insert batching; sequences let imports
+-- and bulk upserts send multi-row inserts. Each sequence starts one block past
+-- the ids already handed out by the old identity columns.
+
+CREATE SEQUENCE IF NOT EXISTS courses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS topics_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS study_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_progress_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS audit_log_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('courses_seq', COALESCE((SELECT MAX(id) FROM courses), 0) + 50, false);
+SELECT setval('topics_seq', COALESCE((SELECT MAX(id) FROM topics), 0) + 50, false);
+SELECT setval('study_items_seq', COALESCE((SELECT MAX(id) FROM study_items), 0) + 50, false);
+SELECT setval('user_progress_seq', COALESCE((SELECT MAX(id) FROM user_progress), 0) + 50, false);
+SELECT setval('audit_log_seq', COALESCE((SELECT MAX(id) FROM audit_log), 0) + 50, false);
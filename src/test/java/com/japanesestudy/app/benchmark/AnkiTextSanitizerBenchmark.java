@@ -0,0 +1,84 @@
+package com.japanesestudy.app.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.japanesestudy.app.util.AnkiTextSanitizer;
+import com.japanesestudy.app.util.LegacyAnkiTextCleaner;
+
+/**
+ * JMH comparison of the old regex chain and {@link AnkiTextSanitizer} over
+ * every field of the bundled Minna no Nihongo collection, as parsed per note
+ * (split, then clean each field).
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnkiTextSanitizerBenchmark {
+
+    private List<String> notes;
+
+    @Setup
+    public void loadNotes() throws Exception {
+        notes = new ArrayList<>();
+        String url = "jdbc:sqlite:" + java.nio.file.Path.of("data/anki_temp/collection.anki2").toAbsolutePath();
+        try (Connection conn = DriverManager.getConnection(url);
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT flds FROM notes")) {
+            while (rs.next()) {
+                notes.add(rs.getString(1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyRegexChain(Blackhole bh) {
+        for (String note : notes) {
+            for (String part : note.split("\\x1f")) {
+                bh.consume(LegacyAnkiTextCleaner.clean(part));
+            }
+        }
+    }
+
+    @Benchmark
+    public void handWrittenSanitizer(Blackhole bh) {
+        for (String note : notes) {
+            for (String part : AnkiTextSanitizer.splitFields(note)) {
+                bh.consume(AnkiTextSanitizer.clean(part));
+            }
+        }
+    }
+
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AnkiTextSanitizerBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,191 @@
+package com.japanesestudy.app.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.entity.StudyItem;
+import com.japanesestudy.app.entity.Topic;
+import com.japanesestudy.app.repository.CourseRepository;
+import com.japanesestudy.app.repository.StudyItemRepository;
+import com.japanesestudy.app.repository.TopicRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Counts JDBC round trips (statement executions, a batch counting once)
+ * needed to insert 10k study items with the pooled sequence generator,
+ * against IDENTITY keys, which need one insert per row to read each id back.
+ * The IDENTITY baseline uses plain JDBC on a scratch table so no test-only
+ * entity leaks into other application contexts.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:id-benchmark;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.seed.enabled=false"
+})
+class IdGenerationBenchmark {
+
+    private static final int ITEMS = 10_000;
+    private static final int FLUSH_EVERY = 1_000;
+    private static final RoundTrips ROUND_TRIPS = new RoundTrips();
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private TopicRepository topicRepository;
+    @Autowired
+    private StudyItemRepository studyItemRepository;
+
+    @Test
+    void roundTripsPerTenThousandItems() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS benchmark_identity_rows "
+                + "(id BIGINT AUTO_INCREMENT PRIMARY KEY, label VARCHAR(255))");
+        ROUND_TRIPS.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ITEMS; i++) {
+                String label = "item " + i;
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            "INSERT INTO benchmark_identity_rows (label) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, label);
+                    return ps;
+                }, new GeneratedKeyHolder());
+            }
+        });
+        long identityTrips = ROUND_TRIPS.total();
+
+        Topic topic = transactionTemplate.execute(status -> {
+            Course course = courseRepository.save(new Course("Benchmark", null, "Custom"));
+            Topic t = new Topic("Lesson 01", null, 0);
+            t.setCourse(course);
+            return topicRepository.save(t);
+        });
+
+        ROUND_TRIPS.clear();
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<StudyItem> batch = new ArrayList<>(FLUSH_EVERY);
+            for (int i = 0; i < ITEMS; i++) {
+                StudyItem item = new StudyItem("語" + i, "ご" + i);
+                item.setMeaning("word " + i);
+                item.setTopic(topic);
+                batch.add(item);
+                if (batch.size() == FLUSH_EVERY) {
+                    studyItemRepository.saveAll(batch);
+                    studyItemRepository.flush();
+                    entityManager.clear();
+                    batch.clear();
+                }
+            }
+        });
+        long sequenceMillis = (System.nanoTime() - started) / 1_000_000;
+        long sequenceTrips = ROUND_TRIPS.total();
+
+        System.out.printf("%nInsert round trips per %,d items%n", ITEMS);
+        System.out.printf("  IDENTITY ids:          %,8d round trips%n", identityTrips);
+        System.out.printf("  pooled sequence ids:   %,8d round trips (%,d batches, %,d single statements, %,d ms)%n",
+                sequenceTrips, ROUND_TRIPS.batches.get(), ROUND_TRIPS.singles.get(), sequenceMillis);
+
+        assertTrue(sequenceTrips * 10 < identityTrips,
+                "pooled sequences should batch inserts: " + sequenceTrips + " vs " + identityTrips);
+    }
+
+    /**
+     * Statement executions seen through the benchmark's data source.
+     */
+    static final class RoundTrips {
+
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong singles = new AtomicLong();
+
+        long total() {
+            return batches.get() + singles.get();
+        }
+
+        void clear() {
+            batches.set(0);
+            singles.set(0);
+        }
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        /**
+         * Wraps {@code target} so connections and statements it hands out are
+         * wrapped too, and every {@code execute*} call is counted.
+         */
+        private static <T> T proxy(Class<T> type, T target) {
+            Object wrapper = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (self, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                            ROUND_TRIPS.batches.incrementAndGet();
+                        } else if (name.startsWith("execute")) {
+                            ROUND_TRIPS.singles.incrementAndGet();
+                        }
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        return wrap(method.getReturnType(), result);
+                    });
+            return type.cast(wrapper);
+        }
+
+        private static Object wrap(Class<?> type, Object result) {
+            if (result instanceof Connection connection && type == Connection.class) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof PreparedStatement statement && type == PreparedStatement.class) {
+                return proxy(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement && type == Statement.class) {
+                return proxy(Statement.class, statement);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.japanesestudy.app.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.japanesestudy.app.service.AnkiService;
+
+/**
+ * End-to-end import throughput: runs {@link AnkiService#importAnkiFile} on the
+ * bundled decks and on synthetic decks of 1k, 10k and 50k notes, writing to
+ * in-memory H2. Synthetic notes reuse the vocabulary in
+ * {@code data/anki_import.json} so field lengths and markup look like a real
+ * deck. Prints wall time per stage, allocated bytes, rows per second and peak
+ * heap for each deck.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:import-benchmark;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.seed.enabled=false"
+})
+class ImportThroughputBenchmark {
+
+    private static final Path BUNDLED_APKG = Path.of("data/Japanese_Minna_no_Nihongo_1__2_Lessons_1_-_50.apkg");
+    private static final Path BUNDLED_COLLECTION = Path.of("data/anki_temp/collection.anki2");
+    private static final Path VOCABULARY = Path.of("data/anki_import.json");
+    private static final int[] SYNTHETIC_SIZES = {1_000, 10_000, 50_000};
+    private static final String MODELS_JSON =
+            "{\"1\":{\"flds\":[{\"name\":\"Expression\"},{\"name\":\"Reading\"},{\"name\":\"Meaning\"}]}}";
+
+    private static Path workDir;
+
+    @Autowired
+    private AnkiService ankiService;
+
+    @BeforeAll
+    static void createWorkDir() throws IOException {
+        workDir = Files.createTempDirectory("import-benchmark");
+    }
+
+    @AfterAll
+    static void deleteWorkDir() throws IOException {
+        try (var files = Files.walk(workDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void importThroughput() throws Exception {
+        List<Path> bundled = new ArrayList<>();
+        if (Files.exists(BUNDLED_APKG)) {
+            bundled.add(BUNDLED_APKG);
+        }
+        if (Files.exists(BUNDLED_COLLECTION)) {
+            bundled.add(zipCollection(BUNDLED_COLLECTION, workDir.resolve("bundled-collection.apkg")));
+        }
+        assertTrue(!bundled.isEmpty(), "bundled decks not found");
+
+        // Warm up class loading, JIT and the connection pool before measuring.
+        measure("warmup", bundled.get(0));
+
+        List<String> rows = new ArrayList<>();
+        for (Path deck : bundled) {
+            rows.add(measure(deck.getFileName().toString(), deck).format());
+        }
+        List<String[]> vocabulary = loadVocabulary();
+        for (int size : SYNTHETIC_SIZES) {
+            Path deck = syntheticDeck(size, vocabulary);
+            Run run = measure("synthetic-" + size, deck);
+            assertEquals(size, ((Number) run.result().get("itemsCreated")).intValue());
+            rows.add(run.format());
+        }
+
+        System.out.printf("%nImport throughput (H2, file-backed SQLite source)%n");
+        System.out.printf("%-48s %8s %9s %8s %8s %8s %8s %8s %10s %10s %9s%n", "deck", "items", "wall ms",
+                "extract", "read", "transf", "write", "wait", "rows/s", "alloc MB", "peak MB");
+        rows.forEach(System.out::println);
+    }
+
+    private Run measure(String name, Path deck) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        MockMultipartFile upload = new MockMultipartFile("file", name + ".apkg", "application/octet-stream",
+                Files.readAllBytes(deck));
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long started = System.nanoTime();
+        Map<String, Object> result = ankiService.importAnkiFile(upload, name + ".apkg", null);
+        long wallNanos = System.nanoTime() - started;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Run(name, result, wallNanos, allocated, peakHeap);
+    }
+
+    private record Run(String name, Map<String, Object> result, long wallNanos, long allocatedBytes,
+            long peakHeapBytes) {
+
+        String format() {
+            @SuppressWarnings("unchecked")
+            Map<String, Long> stages = (Map<String, Long>) result.getOrDefault("stageMillis", Map.of());
+            long wallMillis = wallNanos / 1_000_000;
+            long items = ((Number) result.getOrDefault("itemsCreated", 0)).longValue();
+            long extractMillis = wallMillis - stages.getOrDefault("total", 0L);
+            double rowsPerSecond = wallNanos > 0 ? items * 1_000_000_000.0 / wallNanos : 0;
+            return String.format("%-48s %8d %9d %8d %8d %8d %8d %8d %10.0f %10.1f %9.1f",
+                    name, items, wallMillis, extractMillis, stages.getOrDefault("read", 0L),
+                    stages.getOrDefault("transform", 0L), stages.getOrDefault("write", 0L),
+                    stages.getOrDefault("writerWait", 0L), rowsPerSecond, allocatedBytes / 1_048_576.0,
+                    peakHeapBytes / 1_048_576.0);
+        }
+    }
+
+    private static List<String[]> loadVocabulary() throws IOException {
+        List<String[]> vocabulary = new ArrayList<>();
+        if (Files.exists(VOCABULARY)) {
+            JsonNode root = new ObjectMapper().readTree(VOCABULARY.toFile());
+            for (JsonNode item : root.path("items")) {
+                vocabulary.add(new String[]{
+                    item.path("front").asText(), item.path("back").asText(), item.path("reading").asText()
+                });
+            }
+        }
+        if (vocabulary.isEmpty()) {
+            vocabulary.add(new String[]{"<b>食べる</b>", "たべる", "to eat"});
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Writes a collection.anki2 with {@code notes} notes cycling through the
+     * vocabulary, with a bit of the markup real decks carry, and zips it as
+     * an .apkg.
+     */
+    private static Path syntheticDeck(int notes, List<String[]> vocabulary) throws Exception {
+        Path collection = workDir.resolve("synthetic-" + notes + ".anki2");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + collection.toAbsolutePath())) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE col (id INTEGER PRIMARY KEY, models TEXT NOT NULL)");
+                stmt.execute("CREATE TABLE notes (id INTEGER PRIMARY KEY, guid TEXT NOT NULL, flds TEXT NOT NULL)");
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO col (id, models) VALUES (1, ?)")) {
+                ps.setString(1, MODELS_JSON);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO notes (id, guid, flds) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < notes; i++) {
+                    String[] word = vocabulary.get(i % vocabulary.size());
+                    ps.setLong(1, i + 1);
+                    ps.setString(2, "bench" + notes + "-" + i);
+                    ps.setString(3, "<div>" + word[0] + "</div>[sound:w" + i + ".mp3]\u001f" + word[1]
+                            + "\u001f" + word[2] + "&nbsp;(" + i + ")");
+                    ps.addBatch();
+                    if ((i + 1) % 1_000 == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+        return zipCollection(collection, workDir.resolve("synthetic-" + notes + ".apkg"));
+    }
+
+    private static Path zipCollection(Path collection, Path apkg) throws IOException {
+        try (OutputStream out = Files.newOutputStream(apkg); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("collection.anki2"));
+            Files.copy(collection, zip);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("media"));
+            zip.write("{}".getBytes());
+            zip.closeEntry();
+        }
+        return apkg;
+    }
+}
@@ -0,0 +1,67 @@
+package com.japanesestudy.app.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.japanesestudy.app.util.NgramIndex;
+
+/**
+ * Query latency of the study item search index over 200k synthetic items
+ * with kanji, kana and English fields. Prints the mean time per query for a
+ * mix of single-kanji, kana, phrase and English lookups.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SearchIndexBenchmark {
+
+    private static final int ITEMS = 200_000;
+    private static final int ITERATIONS = 2_000;
+    private static final String KANA = "あいうえおかきくけこさしすせそたちつてとなにぬねのはひふへほまみむめもやゆよらりるれろわをん";
+    private static final String KANJI = "食飲見行来学生先日本人大小中上下山川田月火水木金土";
+    private static final String[] WORDS = {
+        "eat", "drink", "see", "go", "come", "study", "student", "teacher", "day", "book", "person", "big", "small"
+    };
+    private static final String[] QUERIES = {"食", "食飲", "かき", "たべる", "eat", "to eat", "student teacher"};
+
+    @Test
+    void queryLatency() {
+        NgramIndex index = new NgramIndex();
+        Random random = new Random(42);
+        long started = System.nanoTime();
+        for (int i = 0; i < ITEMS; i++) {
+            index.put(i, i / 40, randomText(random, KANJI, 2), randomText(random, KANA, 4),
+                    "to " + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        }
+        System.out.printf("%nSearch index: %d items built in %d ms%n", ITEMS,
+                (System.nanoTime() - started) / 1_000_000);
+
+        // Warm up.
+        for (int i = 0; i < ITERATIONS; i++) {
+            index.search(QUERIES[i % QUERIES.length], 50);
+        }
+        System.out.printf("%-20s %8s %12s%n", "query", "hits", "us/query");
+        for (String query : QUERIES) {
+            int hits = 0;
+            long queryStarted = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                hits = index.search(query, 50).size();
+            }
+            double micros = (System.nanoTime() - queryStarted) / 1_000.0 / ITERATIONS;
+            System.out.printf("%-20s %8d %12.1f%n", query, hits, micros);
+            assertTrue(micros < 1_000, query + " took " + micros + " us");
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
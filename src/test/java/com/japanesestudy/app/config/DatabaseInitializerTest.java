@@ -0,0 +1,45 @@
+package com.japanesestudy.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class DatabaseInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTopics() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:order-backfill;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS topics");
+        jdbcTemplate.execute("CREATE TABLE topics (id BIGINT PRIMARY KEY, course_id BIGINT, order_index INT)");
+    }
+
+    @Test
+    void assignMissingOrderIndexes_appendsNullsAfterEachCourseInIdOrder() {
+        jdbcTemplate.batchUpdate("INSERT INTO topics (id, course_id, order_index) VALUES (?, ?, ?)", List.of(
+                new Object[] {1L, 10L, 0},
+                new Object[] {2L, 10L, null},
+                new Object[] {3L, 10L, 5},
+                new Object[] {4L, 10L, null},
+                new Object[] {5L, 20L, null}));
+
+        int updated = DatabaseInitializer.assignMissingOrderIndexes(jdbcTemplate);
+
+        assertEquals(3, updated);
+        assertEquals(List.of(0, 6, 5, 7, 0),
+                jdbcTemplate.queryForList("SELECT order_index FROM topics ORDER BY id", Integer.class));
+    }
+
+    @Test
+    void assignMissingOrderIndexes_leavesIndexedTopicsAlone() {
+        jdbcTemplate.update("INSERT INTO topics (id, course_id, order_index) VALUES (1, 10, 3)");
+
+        assertEquals(0, DatabaseInitializer.assignMissingOrderIndexes(jdbcTemplate));
+    }
+}
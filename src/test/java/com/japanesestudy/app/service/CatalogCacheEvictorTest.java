@@ -0,0 +1,164 @@
+package com.japanesestudy.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.entity.Topic;
+import com.japanesestudy.app.entity.User;
+import com.japanesestudy.app.repository.TopicRepository;
+import com.japanesestudy.app.util.SerializedBody;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheEvictorTest {
+
+    @Mock
+    private TopicRepository topicRepository;
+
+    private CaffeineCacheManager cacheManager;
+    private CatalogCacheEvictor evictor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager("courses", "courseById", "topicsByCourse", "itemsByTopic",
+                "courseTree");
+        evictor = new CatalogCacheEvictor(cacheManager, topicRepository);
+
+        cache("courses").put(SimpleKey.EMPTY, List.of());
+        cache("courses").put(7L, List.of());
+        cache("courses").put(8L, List.of());
+        cache("courseById").put(1L, Optional.empty());
+        cache("courseById").put(2L, Optional.empty());
+        cache("topicsByCourse").put(1L, List.of());
+        cache("topicsByCourse").put(2L, List.of());
+        cache("itemsByTopic").put(10L, List.of());
+        cache("itemsByTopic").put("topic:10:limit:5", List.of());
+        cache("itemsByTopic").put("topic:10:limit:20", List.of());
+        cache("itemsByTopic").put(20L, List.of());
+        cache("itemsByTopic").put("topic:20:limit:5", List.of());
+        cache("itemsByTopic").put("topic:100:limit:5", List.of());
+        cache("courseTree").put(1L, tree());
+        cache("courseTree").put(2L, tree());
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void itemsChanged_evictsOnlyThatTopicAndItsLimitedVariants() {
+        evictor.itemsChanged(topic(10L, course(1L, 7L)));
+
+        assertNull(cache("itemsByTopic").get(10L));
+        assertNull(cache("itemsByTopic").get("topic:10:limit:5"));
+        assertNull(cache("itemsByTopic").get("topic:10:limit:20"));
+        assertNotNull(cache("itemsByTopic").get(20L));
+        assertNotNull(cache("itemsByTopic").get("topic:20:limit:5"));
+        assertNotNull(cache("itemsByTopic").get("topic:100:limit:5"));
+        assertNotNull(cache("topicsByCourse").get(1L));
+        assertNotNull(cache("courses").get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    void itemsChanged_evictsAndBumpsOnlyTheTreeOfTheTopicsCourse() {
+        evictor.itemsChanged(topic(20L, course(2L, 8L)));
+
+        assertNull(cache("courseTree").get(2L));
+        assertNotNull(cache("courseTree").get(1L));
+        assertEquals(1L, evictor.treeGeneration(2L));
+        assertEquals(0L, evictor.treeGeneration(1L));
+    }
+
+    @Test
+    void topicChanged_evictsOnlyItsCourseTopicList() {
+        evictor.topicChanged(topic(10L, course(1L, 7L)));
+
+        assertNull(cache("topicsByCourse").get(1L));
+        assertNotNull(cache("topicsByCourse").get(2L));
+        assertNotNull(cache("itemsByTopic").get(10L));
+        assertNotNull(cache("courseById").get(1L));
+    }
+
+    @Test
+    void courseChanged_evictsFullListOwnerListAndCourse() {
+        evictor.courseChanged(course(1L, 7L));
+
+        assertNull(cache("courses").get(SimpleKey.EMPTY));
+        assertNull(cache("courses").get(7L));
+        assertNull(cache("courseById").get(1L));
+        assertNotNull(cache("courses").get(8L));
+        assertNotNull(cache("courseById").get(2L));
+        assertNotNull(cache("topicsByCourse").get(1L));
+    }
+
+    @Test
+    void courseTreeChanged_evictsTopicsAndItemsOfThatCourseOnly() {
+        when(topicRepository.findIdsByCourseId(1L)).thenReturn(List.of(10L));
+
+        evictor.courseTreeChanged(course(1L, 7L));
+
+        assertNull(cache("topicsByCourse").get(1L));
+        assertNull(cache("itemsByTopic").get(10L));
+        assertNull(cache("itemsByTopic").get("topic:10:limit:5"));
+        assertNotNull(cache("topicsByCourse").get(2L));
+        assertNotNull(cache("itemsByTopic").get(20L));
+        assertNotNull(cache("courseById").get(2L));
+    }
+
+    @Test
+    void insideTransaction_evictsOnlyOnceItCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.itemsChanged(topic(10L, course(1L, 7L)));
+        assertNotNull(cache("itemsByTopic").get(10L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertNull(cache("itemsByTopic").get(10L));
+        assertNotNull(cache("itemsByTopic").get(20L));
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private static Course course(long id, long ownerId) {
+        User owner = new User();
+        owner.setId(ownerId);
+        Course course = new Course();
+        course.setId(id);
+        course.setOwner(owner);
+        return course;
+    }
+
+    private static CourseTreeService.SerializedTree tree() {
+        return new CourseTreeService.SerializedTree(0L, new SerializedBody(new byte[0], null, "\"t\""));
+    }
+
+    private static Topic topic(long id, Course course) {
+        Topic topic = new Topic();
+        topic.setId(id);
+        topic.setCourse(course);
+        return topic;
+    }
+}
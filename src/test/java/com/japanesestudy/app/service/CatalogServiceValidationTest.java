@@ -1,23 +1,32 @@
 package com.japanesestudy.app.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.japanesestudy.app.dto.catalog.CatalogDtos.CursorPage;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.StudyItemView;
+import com.japanesestudy.app.dto.catalog.CatalogDtos.TopicView;
 import com.japanesestudy.app.entity.Course;
 import com.japanesestudy.app.entity.StudyItem;
 import com.japanesestudy.app.entity.Topic;
@@ -30,6 +39,7 @@ import com.japanesestudy.app.repository.UserRepository;
 import com.japanesestudy.app.service.CatalogService.BulkResult;
 import com.japanesestudy.app.service.CatalogService.StudyItemUpsert;
 import com.japanesestudy.app.service.CatalogService.TopicUpsert;
+import com.japanesestudy.app.util.PageCursor;
 
 @ExtendWith(MockitoExtension.class)
 @SuppressWarnings("unused")
@@ -50,6 +60,18 @@ class CatalogServiceValidationTest {
     @Mock
     @SuppressWarnings("unused")
     private UserRepository userRepository;
+    @Mock
+    @SuppressWarnings("unused")
+    private CatalogCacheEvictor cacheEvictor;
+    @Mock
+    @SuppressWarnings("unused")
+    private StudyItemSearchService searchService;
+    @Mock
+    @SuppressWarnings("unused")
+    private CatalogCacheLoader cacheLoader;
+    @Mock
+    @SuppressWarnings("unused")
+    private CacheManager cacheManager;
 
     @InjectMocks
     private CatalogService catalogService;
@@ -68,6 +90,15 @@ class CatalogServiceValidationTest {
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
     }
 
+    @Test
+    void getItemsByTopics_tooManyIds_throwsBadRequest() {
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> catalogService.getItemsByTopics(ids));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
     @Test
     void bulkUpsertTopics_negativeOrderIndex_throwsBadRequest() {
         long courseId = 10L;
@@ -112,8 +143,7 @@ class CatalogServiceValidationTest {
         Course course = new Course();
         course.setId(courseId);
         when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
-        when(topicRepository.existsByCourseIdAndTitleIgnoreCaseAndDeletedFalse(courseId, "Lesson"))
-                .thenReturn(false);
+        when(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId)).thenReturn(List.of());
 
         List<TopicUpsert> payload = List.of(new TopicUpsert(null, "Lesson", "desc", 0));
 
@@ -124,6 +154,32 @@ class CatalogServiceValidationTest {
         verify(topicRepository, never()).saveAll(any());
     }
 
+    @Test
+    void bulkUpsertTopics_checksTitlesAndOrderAgainstOnePreload() {
+        long courseId = 13L;
+        Course course = new Course();
+        course.setId(courseId);
+        Topic existing = new Topic("Lesson 1", null, 4);
+        existing.setId(100L);
+        existing.setCourse(course);
+        when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
+        when(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId)).thenReturn(List.of(existing));
+
+        List<TopicUpsert> payload = List.of(
+                new TopicUpsert(null, "Lesson 2", null, null),
+                new TopicUpsert(null, "Lesson 3", null, null));
+        catalogService.bulkUpsertTopics(courseId, payload, false, null);
+
+        ArgumentCaptor<List<Topic>> saved = ArgumentCaptor.captor();
+        verify(topicRepository).saveAll(saved.capture());
+        assertEquals(List.of(5, 6), saved.getValue().stream().map(Topic::getOrderIndex).toList());
+
+        List<TopicUpsert> clash = List.of(new TopicUpsert(null, "lesson 1", null, null));
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> catalogService.bulkUpsertTopics(courseId, clash, false, null));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
     @Test
     void bulkUpsertStudyItems_dryRun_skipsPersistence() {
         long topicId = 20L;
@@ -139,4 +195,74 @@ class CatalogServiceValidationTest {
         assertEquals(0, result.updated());
         verify(studyItemRepository, never()).saveAll(any());
     }
+
+    @Test
+    void scrollTopicsByCourse_seeksFromLastOrderIndexAndId() {
+        long courseId = 30L;
+        List<Topic> rows = LongStream.rangeClosed(1, 3).mapToObj(id -> {
+            Topic topic = new Topic("Lesson " + id, null, 7);
+            topic.setId(id);
+            return topic;
+        }).toList();
+        when(topicRepository.findPageAfter(courseId, Integer.MIN_VALUE, Long.MIN_VALUE, Limit.of(3))).thenReturn(rows);
+
+        CursorPage<TopicView> first = catalogService.scrollTopicsByCourse(courseId, null, 2, false);
+
+        assertEquals(List.of(1L, 2L), first.items().stream().map(TopicView::id).toList());
+        assertEquals(PageCursor.encode(7, 2), first.nextCursor());
+        assertNull(first.total());
+
+        when(topicRepository.findPageAfter(courseId, 7, 2L, Limit.of(3))).thenReturn(rows.subList(2, 3));
+        when(topicRepository.countByCourseIdAndDeletedFalse(courseId)).thenReturn(3L);
+
+        CursorPage<TopicView> last = catalogService.scrollTopicsByCourse(courseId, first.nextCursor(), 2, true);
+
+        assertEquals(List.of(3L), last.items().stream().map(TopicView::id).toList());
+        assertNull(last.nextCursor());
+        assertEquals(3L, last.total());
+    }
+
+    @Test
+    void scrollTopicsByCourse_rejectsOutOfRangeOrderIndex() {
+        String cursor = PageCursor.encode((long) Integer.MAX_VALUE + 1, 1);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> catalogService.scrollTopicsByCourse(30L, cursor, 2, false));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void scrollItemsByTopic_seeksFromLastId() {
+        long topicId = 40L;
+        List<StudyItem> rows = LongStream.of(11, 12).mapToObj(id -> {
+            StudyItem item = new StudyItem();
+            item.setId(id);
+            return item;
+        }).toList();
+        when(studyItemRepository.findByTopicIdAndDeletedFalseAndIdGreaterThanOrderByIdAsc(topicId, 10L, Limit.of(2)))
+                .thenReturn(rows);
+
+        CursorPage<StudyItemView> page = catalogService.scrollItemsByTopic(topicId, PageCursor.encode(10), 1, false);
+
+        assertEquals(List.of(11L), page.items().stream().map(StudyItemView::id).toList());
+        assertEquals(PageCursor.encode(11), page.nextCursor());
+    }
+
+    @Test
+    void reorderTopicsByTitle_sortsOnStoredKeysAndDerivesMissingOnes() {
+        long courseId = 50L;
+        Topic tenth = new Topic("Lesson 10", null, 0);
+        tenth.refreshSortKey();
+        Topic second = new Topic("Lesson 2", null, 1);
+        // A stored key wins over the title, so it is not recomputed here.
+        Topic pinned = new Topic("Appendix", null, 2);
+        pinned.setSortKey("~");
+        when(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(courseId))
+                .thenReturn(new ArrayList<>(List.of(tenth, second, pinned)));
+
+        assertEquals(3, catalogService.reorderTopicsByTitle(courseId));
+
+        assertEquals(List.of(1, 0, 2), List.of(tenth.getOrderIndex(), second.getOrderIndex(), pinned.getOrderIndex()));
+        assertEquals("~", pinned.getSortKey());
+    }
 }
@@ -0,0 +1,102 @@
+package com.japanesestudy.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.japanesestudy.app.entity.Course;
+import com.japanesestudy.app.entity.Topic;
+import com.japanesestudy.app.repository.StudyItemRepository;
+import com.japanesestudy.app.repository.TopicRepository;
+import com.japanesestudy.app.service.CourseTreeService.SerializedTree;
+
+@ExtendWith(MockitoExtension.class)
+class CourseTreeServiceTest {
+
+    @Mock
+    private TopicRepository topicRepository;
+    @Mock
+    private StudyItemRepository studyItemRepository;
+
+    private CaffeineCacheManager cacheManager;
+    private CatalogCacheEvictor evictor;
+    private CourseTreeService service;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager("courseTree");
+        // The evictor sees no courseTree cache, as if its eviction had run
+        // before a racing build stored its tree: only the generation moves.
+        evictor = new CatalogCacheEvictor(new CaffeineCacheManager("itemsByTopic"), topicRepository);
+        service = new CourseTreeService(topicRepository, studyItemRepository, cacheManager, evictor,
+                new ObjectMapper());
+        course = new Course("Kana", null, "N5");
+        course.setId(1L);
+    }
+
+    @Test
+    void getTree_hit_returnsCachedTreeWithoutQuerying() {
+        when(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(1L)).thenReturn(List.of());
+
+        SerializedTree first = service.getTree(course);
+        SerializedTree second = service.getTree(course);
+
+        assertSame(first, second);
+        verify(topicRepository).findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(1L);
+        verifyNoMoreInteractions(topicRepository, studyItemRepository);
+    }
+
+    @Test
+    void getTree_treeStoredAfterGenerationBump_isDiscardedAndRebuilt() {
+        Topic topic = topic(10L, "Lesson 1");
+        Topic renamed = topic(10L, "Lesson 1 (revised)");
+        when(topicRepository.findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(1L))
+                .thenAnswer(invocation -> {
+                    // A change commits while this build is reading its rows.
+                    evictor.itemsChanged(topic);
+                    return List.of(topic);
+                })
+                .thenReturn(List.of(renamed));
+
+        SerializedTree stale = service.getTree(course);
+        assertEquals(0L, stale.generation());
+        assertEquals(1L, evictor.treeGeneration(1L));
+
+        SerializedTree rebuilt = service.getTree(course);
+
+        assertEquals(1L, rebuilt.generation());
+        assertTrue(json(rebuilt).contains("Lesson 1 (revised)"));
+        assertSame(rebuilt, cacheManager.getCache("courseTree").get(1L).get());
+        verify(topicRepository, times(2)).findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(1L);
+
+        assertSame(rebuilt, service.getTree(course));
+        verify(topicRepository, times(2)).findByCourseIdAndDeletedFalseOrderByOrderIndexAsc(1L);
+    }
+
+    private Topic topic(long id, String title) {
+        Topic topic = new Topic(title, null, 0);
+        topic.setId(id);
+        topic.setCourse(course);
+        return topic;
+    }
+
+    private static String json(SerializedTree tree) {
+        return new String(tree.body().identity(), StandardCharsets.UTF_8);
+    }
+}
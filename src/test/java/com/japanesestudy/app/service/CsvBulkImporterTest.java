@@ -0,0 +1,72 @@
+package com.japanesestudy.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.japanesestudy.app.service.CatalogService.BulkResult;
+import com.japanesestudy.app.service.CatalogService.StudyItemUpsert;
+import com.japanesestudy.app.service.CatalogService.TopicUpsert;
+import com.japanesestudy.app.service.CsvBulkImporter.ImportResult;
+import com.japanesestudy.app.service.CsvBulkImporter.RowError;
+
+@ExtendWith(MockitoExtension.class)
+class CsvBulkImporterTest {
+
+    @Mock
+    private CatalogService catalogService;
+
+    @InjectMocks
+    private CsvBulkImporter importer;
+
+    @Test
+    void importStudyItems_databaseRejection_reportsOnlyOffendingLines() {
+        when(catalogService.bulkUpsertStudyItems(eq(5L), anyList(), eq(false), eq(1L))).thenAnswer(invocation -> {
+            List<StudyItemUpsert> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> row.primaryText().equals("飲む"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return new BulkResult(rows.size(), 0);
+        });
+        String csv = "primary,secondary,meaning\n食べる,たべる,to eat\n,,\n飲む,のむ,to drink\n";
+
+        ImportResult result = importer.importStudyItems(5L,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false, 1L);
+
+        assertEquals(1, result.created());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(3L, 4L), result.errors().stream().map(RowError::line).toList());
+        assertEquals("violates database constraints", result.errors().get(1).message());
+    }
+
+    @Test
+    void importTopics_dryRun_reportsTitleClashWithEarlierChunk() {
+        when(catalogService.bulkUpsertTopics(eq(7L), anyList(), eq(true), eq(1L))).thenAnswer(invocation -> {
+            List<TopicUpsert> rows = invocation.getArgument(1);
+            return new BulkResult(rows.size(), 0);
+        });
+        String csv = "title\n"
+                + IntStream.rangeClosed(1, 500).mapToObj(i -> "Lesson " + i + "\n").collect(Collectors.joining())
+                + "lesson 1\nLesson 501\n";
+
+        ImportResult result = importer.importTopics(7L,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true, 1L);
+
+        assertEquals(501, result.created());
+        assertEquals(List.of(new RowError(502, "Topic title already exists in this course")), result.errors());
+    }
+}
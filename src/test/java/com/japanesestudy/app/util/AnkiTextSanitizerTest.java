@@ -0,0 +1,64 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AnkiTextSanitizerTest {
+
+    private static final Path[] BUNDLED_COLLECTIONS = {
+        Path.of("data/anki_temp/collection.anki2"),
+        Path.of("data/temp_anki/collection.anki2")
+    };
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "", "   ", "plain", "<b>bold</b> text", "[sound:word.mp3]食べる", "[sound:]kept",
+        "<img src=\"a.jpg\">画像", "[anki:play:q:0]音", "&lt;b&gt; &amp; &quot;q&quot;",
+        "&amp;quot;", "&amp;lt;", "a&nbsp;&nbsp; b", "line\none\ttab", "<>", "a < b",
+        "< <img src=x>", "\u0001 padded \u0001"
+    })
+    void clean_matchesLegacyRegexChain(String input) {
+        assertEquals(LegacyAnkiTextCleaner.clean(input), AnkiTextSanitizer.clean(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "a\u001fb", "a\u001f\u001f", "\u001fa", "\u001f", "a\u001f\u001fb\u001f"})
+    void splitFields_matchesStringSplit(String input) {
+        assertArrayEquals(input.split("\\x1f"), AnkiTextSanitizer.splitFields(input));
+    }
+
+    @Test
+    void clean_isByteIdenticalOnBundledDecks() throws Exception {
+        int checked = 0;
+        for (Path collection : BUNDLED_COLLECTIONS) {
+            if (!Files.exists(collection)) {
+                continue;
+            }
+            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + collection.toAbsolutePath());
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT flds FROM notes")) {
+                while (rs.next()) {
+                    String fields = rs.getString(1);
+                    assertArrayEquals(fields.split("\\x1f"), AnkiTextSanitizer.splitFields(fields));
+                    for (String part : fields.split("\\x1f")) {
+                        assertEquals(LegacyAnkiTextCleaner.clean(part), AnkiTextSanitizer.clean(part));
+                        checked++;
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 0, "bundled decks not found");
+    }
+}
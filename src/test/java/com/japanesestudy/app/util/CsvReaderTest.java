@@ -0,0 +1,68 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void next_handlesQuotedCommasQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "\uFEFFprimary,secondary\r\n\"食べる, 食う\",\"say \"\"hi\"\"\"\n\"two\nlines\",x\n"));
+
+        assertEquals(List.of("primary", "secondary"), reader.next().fields());
+        assertEquals(List.of("食べる, 食う", "say \"hi\""), reader.next().fields());
+        CsvReader.Row multiLine = reader.next();
+        assertEquals(3, multiLine.line());
+        assertEquals(List.of("two\nlines", "x"), multiLine.fields());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_reportsMalformedRecordAndResumesAtTheNextOne() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"a\"b,c\nok,1\n"));
+
+        CsvReader.MalformedRecordException error =
+                assertThrows(CsvReader.MalformedRecordException.class, reader::next);
+        assertEquals(1, error.getLine());
+        CsvReader.Row next = reader.next();
+        assertEquals(2, next.line());
+        assertEquals(List.of("ok", "1"), next.fields());
+    }
+
+    @Test
+    void next_rejectsRecordsLongerThanTheLimit() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("abcdefghij\nok\n"), 5);
+
+        assertThrows(CsvReader.MalformedRecordException.class, reader::next);
+        assertEquals(List.of("ok"), reader.next().fields());
+    }
+
+    @Test
+    void next_skipsQuotedLineBreaksInTheRestOfAMalformedRecord() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"a\"b,\"x\ny\",z\nok,1\n"));
+
+        assertThrows(CsvReader.MalformedRecordException.class, reader::next);
+        CsvReader.Row next = reader.next();
+        assertEquals(3, next.line());
+        assertEquals(List.of("ok", "1"), next.fields());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_skipsTheRestOfAnOversizedQuotedField() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"abcdefghij\nklm\"\"n\nop\",x\nok\n"), 5);
+
+        assertThrows(CsvReader.MalformedRecordException.class, reader::next);
+        CsvReader.Row next = reader.next();
+        assertEquals(4, next.line());
+        assertEquals(List.of("ok"), next.fields());
+    }
+}
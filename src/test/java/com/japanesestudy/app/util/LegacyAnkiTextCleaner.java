@@ -0,0 +1,28 @@
+package com.japanesestudy.app.util;
+
+/**
+ * The regex chain that {@link AnkiTextSanitizer} replaced, kept as the
+ * reference implementation for equivalence tests and benchmarks.
+ */
+public final class LegacyAnkiTextCleaner {
+
+    private LegacyAnkiTextCleaner() {
+    }
+
+    public static String clean(String text) {
+        if (text == null) {
+            return "";
+        }
+        text = text.replaceAll("\\[sound:[^\\]]+\\]", "")
+                .replaceAll("<img[^>]+>", "")
+                .replaceAll("\\[anki:play:[^\\]]+\\]", "")
+                .replaceAll("<[^>]+>", "");
+        return text.replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&")
+                .replace("&quot;", "\"")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+}
@@ -0,0 +1,46 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NaturalOrderTest {
+
+    @Test
+    void sortKey_ordersByFirstNumberThenNaturally() {
+        List<String> titles = new ArrayList<>(List.of(
+                "Lesson 10", "Appendix", "Lesson 1-10", "第１２課", "Lesson 2", "Lesson 1-2", "第3課", "Lesson 1"));
+
+        titles.sort(Comparator.comparing(NaturalOrder::sortKey));
+
+        assertEquals(List.of(
+                "Lesson 1", "Lesson 1-2", "Lesson 1-10", "Lesson 2", "第3課", "Lesson 10", "第１２課", "Appendix"),
+                titles);
+    }
+
+    @Test
+    void sortKey_ignoresCaseAndLeadingZeros() {
+        assertEquals(NaturalOrder.sortKey("lesson 2"), NaturalOrder.sortKey("Lesson 02"));
+    }
+
+    @Test
+    void sortKey_treatsFullWidthDigitsLikeAscii() {
+        assertEquals(NaturalOrder.sortKey("第12課"), NaturalOrder.sortKey("第１２課"));
+    }
+
+    @Test
+    void sortKey_fitsTheColumnForMaximumLengthTitlesFullOfNumbers() {
+        String title = "1.".repeat(127) + "1";
+        assertEquals(255, title.length());
+
+        String key = NaturalOrder.sortKey(title);
+
+        assertEquals(NaturalOrder.MAX_KEY_LENGTH, key.length());
+        assertTrue(key.compareTo(NaturalOrder.sortKey("2")) < 0);
+    }
+}
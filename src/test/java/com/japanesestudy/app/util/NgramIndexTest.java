@@ -0,0 +1,62 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NgramIndexTest {
+
+    private NgramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NgramIndex();
+        index.put(1, 10, "食べる", "たべる", "to eat");
+        index.put(2, 10, "飲み物", "のみもの", "a drink; beverage");
+        index.put(3, 11, "食堂", "しょくどう", "dining hall");
+        index.put(4, 11, "ｶﾀｶﾅ", "カタカナ", "Katakana script");
+    }
+
+    @Test
+    void search_singleKanjiFindsEveryItemContainingIt() {
+        assertEquals(List.of(1L, 3L), index.search("食", 10));
+    }
+
+    @Test
+    void search_kanaPhraseMustAppearContiguously() {
+        assertEquals(List.of(1L), index.search("たべる", 10));
+        assertEquals(List.of(), index.search("たる", 10));
+    }
+
+    @Test
+    void search_englishMatchesWholeWordsIgnoringCase() {
+        assertEquals(List.of(2L), index.search("Drink BEVERAGE", 10));
+        assertEquals(List.of(), index.search("drin", 10));
+    }
+
+    @Test
+    void search_normalizesHalfWidthKatakana() {
+        assertEquals(List.of(4L), index.search("カタカナ", 10));
+    }
+
+    @Test
+    void put_replacesPreviousTextAndRemoveDropsItem() {
+        index.put(1, 10, "食う", "くう", "to eat");
+        assertEquals(List.of(), index.search("たべる", 10));
+        assertEquals(List.of(1L, 3L), index.search("食", 10));
+
+        index.remove(1);
+        assertEquals(List.of(3L), index.search("食", 10));
+    }
+
+    @Test
+    void removeGroups_dropsEveryItemOfTheTopic() {
+        index.removeGroups(List.of(11L));
+
+        assertEquals(List.of(1L), index.search("食", 10));
+        assertEquals(2, index.size());
+    }
+}
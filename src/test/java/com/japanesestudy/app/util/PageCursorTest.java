@@ -0,0 +1,41 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class PageCursorTest {
+
+    @Test
+    void decode_roundTripsEncodedKeys() {
+        String cursor = PageCursor.encode(Integer.MIN_VALUE, Long.MAX_VALUE);
+
+        assertArrayEquals(new long[] {Integer.MIN_VALUE, Long.MAX_VALUE}, PageCursor.decode(cursor, 2));
+    }
+
+    @Test
+    void encode_isUrlSafe() {
+        String cursor = PageCursor.encode(-1, 123456789);
+
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+    }
+
+    @Test
+    void decode_wrongArity_throwsBadRequest() {
+        String cursor = PageCursor.encode(1, 2);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> PageCursor.decode(cursor, 1));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void decode_garbage_throwsBadRequest() {
+        assertThrows(ResponseStatusException.class, () -> PageCursor.decode("not base64!", 1));
+        assertThrows(ResponseStatusException.class, () -> PageCursor.decode(PageCursor.encode(1) + "x", 1));
+    }
+}
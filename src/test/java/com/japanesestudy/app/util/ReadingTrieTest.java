@@ -0,0 +1,73 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReadingTrieTest {
+
+    private ReadingTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new ReadingTrie(1_000, 10);
+        put(1, 10, 2, "食べる", "たべる");
+        put(2, 10, 2, "食べ物", "たべもの");
+        put(3, 11, 0, "旅", "たび");
+        put(4, 11, 0, "カタカナ", "カタカナ");
+        put(5, 12, 1, "今日は", "こんにちは");
+    }
+
+    @Test
+    void complete_romajiWithTrailingPartialSyllable() {
+        assertEquals(List.of(3L, 1L, 2L), ids("tab"));
+        assertEquals(List.of(1L, 2L), ids("tabe"));
+        assertEquals(List.of(5L), ids("konnichi"));
+    }
+
+    @Test
+    void complete_foldsKatakanaAndHalfWidthInput() {
+        assertEquals(List.of(1L, 2L), ids("タベ"));
+        assertEquals(List.of(4L), ids("ｶﾀ"));
+        assertEquals(List.of(2L), ids("食べ物"));
+    }
+
+    @Test
+    void complete_ranksByTopicOrderThenId() {
+        List<Long> all = trie.complete(List.of(""), 10).stream().map(ReadingTrie.Entry::id).toList();
+        assertEquals(List.of(3L, 4L, 5L, 1L, 2L), all);
+        assertEquals(List.of(3L, 4L), trie.complete(List.of(""), 2).stream().map(ReadingTrie.Entry::id).toList());
+    }
+
+    @Test
+    void remove_dropsEntryAndPrunesNodes() {
+        int nodes = trie.nodeCount();
+        trie.remove(2);
+        assertEquals(List.of(1L), ids("tabe"));
+        assertTrue(trie.nodeCount() < nodes);
+        trie.removeGroups(List.of(11L));
+        assertEquals(List.of(1L), ids("ta"));
+    }
+
+    @Test
+    void put_refusesEntriesBeyondNodeBudget() {
+        ReadingTrie small = new ReadingTrie(4, 10);
+        assertTrue(small.put(new ReadingTrie.Entry(1, 1, 0, "あい", "あい"), "あい"));
+        assertFalse(small.put(new ReadingTrie.Entry(2, 1, 0, "かきく", "かきく"), "かきく"));
+        assertEquals(1, small.size());
+        assertEquals(3, small.nodeCount());
+    }
+
+    private void put(long id, long group, int rank, String primary, String secondary) {
+        trie.put(new ReadingTrie.Entry(id, group, rank, primary, secondary), secondary, primary);
+    }
+
+    private List<Long> ids(String input) {
+        return trie.complete(KanaNormalizer.typedPrefixes(input), 10).stream().map(ReadingTrie.Entry::id).toList();
+    }
+}
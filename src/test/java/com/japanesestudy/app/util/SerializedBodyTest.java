@@ -0,0 +1,42 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SerializedBodyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_smallBodyHasNoGzipCopy() {
+        SerializedBody body = SerializedBody.of(objectMapper, List.of("a"), "\"v1\"");
+
+        assertEquals("[\"a\"]", new String(body.identity(), StandardCharsets.UTF_8));
+        assertNull(body.gzip());
+        assertEquals("\"v1\"", body.etag());
+    }
+
+    @Test
+    void of_largeBodyGzipsToTheSameBytesWithItsOwnEtag() throws IOException {
+        SerializedBody body = SerializedBody.of(objectMapper, Collections.nCopies(500, "たべる"), null);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+            assertArrayEquals(body.identity(), in.readAllBytes());
+        }
+        assertNotEquals(body.etag(), body.gzipEtag());
+        assertEquals(body.identity().length + body.gzip().length, body.weight());
+    }
+}
@@ -0,0 +1,61 @@
+package com.japanesestudy.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class UtilsTest {
+
+    @Test
+    void acceptsEncoding_honoursQValues() {
+        assertTrue(Utils.acceptsEncoding("gzip, deflate, br", "gzip"));
+        assertTrue(Utils.acceptsEncoding("deflate;q=0.5, GZIP;q=0.1", "gzip"));
+        assertFalse(Utils.acceptsEncoding("gzip;q=0, deflate", "gzip"));
+        assertFalse(Utils.acceptsEncoding("gzip;q=0, *", "gzip"));
+        assertTrue(Utils.acceptsEncoding("*", "zstd"));
+        assertFalse(Utils.acceptsEncoding("identity", "zstd"));
+        assertFalse(Utils.acceptsEncoding("x-gzip", "gzip"));
+        assertFalse(Utils.acceptsEncoding(null, "gzip"));
+    }
+
+    @Test
+    void serialized_answersEitherRepresentationsTagWithoutSerializing() {
+        AtomicInteger serialized = new AtomicInteger();
+        Supplier<SerializedBody> body = () -> {
+            serialized.incrementAndGet();
+            return new SerializedBody(new byte[] {'[', ']'}, null, "\"t1\"");
+        };
+
+        for (String ifNoneMatch : new String[] {"\"t1\"", "\"t1-gzip\"", "W/\"t1-gzip\""}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            ResponseEntity<byte[]> entity = Utils.serialized(conditionalGet(ifNoneMatch, response), "\"t1\"", body,
+                    "gzip");
+            assertNull(entity);
+            assertEquals(304, response.getStatus());
+        }
+        assertEquals(0, serialized.get());
+
+        ResponseEntity<byte[]> miss = Utils.serialized(conditionalGet("\"t0\"", new MockHttpServletResponse()),
+                "\"t1\"", body, "gzip");
+        assertEquals(200, miss.getStatusCode().value());
+        assertEquals("\"t1\"", miss.getHeaders().getETag());
+        assertEquals(1, serialized.get());
+    }
+
+    private static ServletWebRequest conditionalGet(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/topics/1/items");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request, response);
+    }
+}